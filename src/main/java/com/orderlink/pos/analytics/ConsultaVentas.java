@@ -0,0 +1,148 @@
+package com.orderlink.pos.analytics;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ConsultaVentas describe una consulta de agrupación sobre las ventas columnares:
+ * una dimensión para agrupar, un rango de fechas y, opcionalmente, un producto.
+ * La ejecución recorre las columnas en paralelo con fork-join.
+ */
+public class ConsultaVentas {
+
+    /**
+     * Dimensiones disponibles para agrupar.
+     */
+    public enum Dimension {
+        HORA("Hora"),
+        PRODUCTO("Producto"),
+        CAJERO("Cajero"),
+        METODO_PAGO("Método de pago");
+
+        private final String etiqueta;
+
+        Dimension(String etiqueta) { this.etiqueta = etiqueta; }
+
+        @Override
+        public String toString() { return etiqueta; }
+    }
+
+    // Filas por tarea hoja; por debajo de esto no conviene dividir más
+    private static final int UMBRAL_DIVISION = 1 << 15;
+
+    // Índices de los acumuladores por clave
+    static final int UNIDADES = 0;
+    static final int CENTAVOS = 1;
+    static final int TRANSACCIONES = 2;
+
+    private final Dimension dimension;
+    private final long desde;
+    private final long hasta;
+    private final int productoId;
+
+    /**
+     * @param dimension dimensión de agrupación
+     * @param desde inicio del rango (segundos locales, inclusivo)
+     * @param hasta fin del rango (segundos locales, exclusivo)
+     * @param productoId producto a filtrar, o 0 para todos
+     */
+    public ConsultaVentas(Dimension dimension, long desde, long hasta, int productoId) {
+        this.dimension = dimension;
+        this.desde = desde;
+        this.hasta = hasta;
+        this.productoId = productoId;
+    }
+
+    public Dimension getDimension() { return dimension; }
+    public long getDesde() { return desde; }
+    public long getHasta() { return hasta; }
+    public int getProductoId() { return productoId; }
+
+    /**
+     * Ejecuta la consulta sobre una vista de las columnas.
+     * @param vista columnas a recorrer
+     * @param pool pool fork-join donde se reparten los recorridos
+     * @return resultado agrupado
+     */
+    public ResultadoConsulta ejecutar(VentasColumnares.Vista vista, ForkJoinPool pool) {
+        long inicio = System.nanoTime();
+        long[][] acumulados = pool.invoke(new Recorrido(vista, 0, vista.filas));
+        long nanos = System.nanoTime() - inicio;
+        return new ResultadoConsulta(this, acumulados, vista.metodos, vista.filas, nanos);
+    }
+
+    private int cantidadClaves(VentasColumnares.Vista vista) {
+        return switch (dimension) {
+            case HORA -> 24;
+            case PRODUCTO -> vista.maxProducto + 1;
+            case CAJERO -> vista.maxUsuario + 1;
+            case METODO_PAGO -> Math.max(1, vista.metodos.size());
+        };
+    }
+
+    private int clave(VentasColumnares.Vista vista, int fila) {
+        return switch (dimension) {
+            case HORA -> (int) ((vista.fecha[fila] / 3600) % 24);
+            case PRODUCTO -> vista.productoId[fila];
+            case CAJERO -> vista.usuarioId[fila];
+            case METODO_PAGO -> vista.metodoPago[fila];
+        };
+    }
+
+    private boolean incluida(VentasColumnares.Vista vista, int fila) {
+        long f = vista.fecha[fila];
+        return f >= desde && f < hasta && (productoId == 0 || vista.productoId[fila] == productoId);
+    }
+
+    /**
+     * Tarea fork-join que acumula un rango de filas y combina los resultados de sus mitades.
+     */
+    private class Recorrido extends RecursiveTask<long[][]> {
+        private final VentasColumnares.Vista vista;
+        private final int desdeFila;
+        private final int hastaFila;
+
+        Recorrido(VentasColumnares.Vista vista, int desdeFila, int hastaFila) {
+            this.vista = vista;
+            this.desdeFila = desdeFila;
+            this.hastaFila = hastaFila;
+        }
+
+        @Override
+        protected long[][] compute() {
+            if (hastaFila - desdeFila <= UMBRAL_DIVISION) {
+                return recorrer();
+            }
+            int medio = (desdeFila + hastaFila) >>> 1;
+            Recorrido izquierda = new Recorrido(vista, desdeFila, medio);
+            Recorrido derecha = new Recorrido(vista, medio, hastaFila);
+            izquierda.fork();
+            long[][] b = derecha.compute();
+            long[][] a = izquierda.join();
+            for (int i = 0; i < a.length; i++) {
+                for (int k = 0; k < a[i].length; k++) {
+                    a[i][k] += b[i][k];
+                }
+            }
+            return a;
+        }
+
+        private long[][] recorrer() {
+            long[][] acc = new long[3][cantidadClaves(vista)];
+            for (int i = desdeFila; i < hastaFila; i++) {
+                if (!incluida(vista, i)) {
+                    continue;
+                }
+                int k = clave(vista, i);
+                acc[UNIDADES][k] += vista.cantidad[i];
+                acc[CENTAVOS][k] += vista.centavos[i];
+                // Las líneas de una venta son contiguas: se cuenta la venta en su primera línea del grupo
+                if (i == 0 || vista.ventaId[i - 1] != vista.ventaId[i]
+                        || !incluida(vista, i - 1) || clave(vista, i - 1) != k) {
+                    acc[TRANSACCIONES][k]++;
+                }
+            }
+            return acc;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.orderlink.pos.analytics;
+
+import com.orderlink.pos.db.DatabaseManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * MotorAnalitico mantiene en memoria las líneas de venta en formato columnar y responde
+ * consultas ad-hoc para los reportes del administrador.
+ * <p>
+ * La carga es incremental: cada refresco solo lee los ítems de venta con id mayor al último
+ * cargado, usando una conexión propia, de modo que los reportes nunca consultan la base en vivo
+ * ni compiten con el cobro. Las fechas se guardan como segundos de la hora local
+ * ({@link #segundosLocales(LocalDateTime)}), así la hora del día sale de una división.
+ */
+public class MotorAnalitico {
+    private static final MotorAnalitico INSTANCIA = new MotorAnalitico();
+
+    private static final String SQL_INCREMENTAL = """
+        SELECT si.id, si.sale_id, si.product_id, si.quantity, si.price_per_unit,
+               s.user_id, s.sale_date, s.payment_method, si.discount
+        FROM sale_items si JOIN sales s ON s.id = si.sale_id
+        WHERE si.id > ?
+        ORDER BY si.id
+    """;
+
+    private final VentasColumnares ventas = new VentasColumnares();
+    // Se activa con el primer refresco; en una caja donde nadie abre reportes queda en false
+    private volatile boolean cargado;
+    // Un solo hilo de refresco: las cargas incrementales nunca se solapan
+    private final ExecutorService refresco = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "analitica-refresco");
+        t.setDaemon(true);
+        return t;
+    });
+    // Deja un núcleo libre para el hilo de JavaFX
+    private final ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+    private MotorAnalitico() {}
+
+    public static MotorAnalitico getInstance() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Carga en segundo plano las líneas de venta nuevas desde el último refresco.
+     * @return futuro con la cantidad de líneas agregadas
+     */
+    public CompletableFuture<Integer> refrescar() {
+        cargado = true;
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return cargarNuevas();
+            } catch (SQLException e) {
+                throw new IllegalStateException("No se pudieron cargar las ventas: " + e.getMessage(), e);
+            }
+        }, refresco);
+    }
+
+    /**
+     * Refresca solo si el motor ya fue cargado (por los reportes o el pronóstico).
+     * Se usa desde el cobro para no cargar el historial completo en la caja.
+     * @return futuro con la cantidad de líneas agregadas (0 si el motor no está cargado)
+     */
+    public CompletableFuture<Integer> refrescarSiCargado() {
+        return cargado ? refrescar() : CompletableFuture.completedFuture(0);
+    }
+
+    /**
+     * Refresca y luego ejecuta la consulta en el pool fork-join.
+     * @param consulta consulta a ejecutar
+     * @return futuro con el resultado
+     */
+    public CompletableFuture<ResultadoConsulta> consultar(ConsultaVentas consulta) {
+        return refrescar().thenApplyAsync(nuevas -> consulta.ejecutar(ventas.vista(), pool), pool);
+    }
+
+    /**
+     * Refresca y devuelve una vista de todas las líneas cargadas,
+     * para procesos que recorren el historial completo (pronóstico de demanda).
+     */
+    public CompletableFuture<VentasColumnares.Vista> vistaActualizada() {
+        return refrescar().thenApply(nuevas -> ventas.vista());
+    }
+
+    /**
+     * Convierte una fecha local en segundos contados como si fuera UTC.
+     */
+    public static long segundosLocales(LocalDateTime fecha) {
+        return fecha.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private int cargarNuevas() throws SQLException {
+        int agregadas = 0;
+        try (Connection conn = DatabaseManager.nuevaConexion();
+             PreparedStatement stmt = conn.prepareStatement(SQL_INCREMENTAL)) {
+            stmt.setLong(1, ventas.getUltimoItemId());
+            ResultSet rs = stmt.executeQuery();
+            // Las líneas de una venta llegan juntas: la fecha se convierte una vez por venta
+            String ultimaFecha = null;
+            long segundos = 0;
+            while (rs.next()) {
+                String fecha = rs.getString(7);
+                if (!fecha.equals(ultimaFecha)) {
+                    ultimaFecha = fecha;
+                    segundos = segundosLocales(LocalDateTime.parse(fecha.replace(' ', 'T')));
+                }
+                int unidades = rs.getInt(4);
+                long centavos = Math.round(rs.getDouble(5) * 100) * unidades - Math.round(rs.getDouble(9) * 100);
+                ventas.agregar(rs.getLong(1), rs.getInt(2), rs.getInt(3), rs.getInt(6), rs.getString(8),
+                        segundos, unidades, centavos);
+                agregadas++;
+            }
+        }
+        return agregadas;
+    }
+}
@@ -0,0 +1,75 @@
+package com.orderlink.pos.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * ResultadoConsulta contiene las filas agrupadas de una {@link ConsultaVentas}.
+ */
+public class ResultadoConsulta {
+    private final ConsultaVentas consulta;
+    private final List<Fila> filas;
+    private final List<String> metodos;
+    private final int filasRecorridas;
+    private final long nanos;
+
+    ResultadoConsulta(ConsultaVentas consulta, long[][] acumulados, List<String> metodos, int filasRecorridas, long nanos) {
+        this.consulta = consulta;
+        this.metodos = metodos;
+        this.filasRecorridas = filasRecorridas;
+        this.nanos = nanos;
+        List<Fila> lista = new ArrayList<>();
+        for (int k = 0; k < acumulados[ConsultaVentas.UNIDADES].length; k++) {
+            if (acumulados[ConsultaVentas.UNIDADES][k] != 0 || acumulados[ConsultaVentas.TRANSACCIONES][k] != 0) {
+                lista.add(new Fila(k,
+                        acumulados[ConsultaVentas.UNIDADES][k],
+                        acumulados[ConsultaVentas.CENTAVOS][k],
+                        acumulados[ConsultaVentas.TRANSACCIONES][k]));
+            }
+        }
+        // Las horas se muestran en orden cronológico; el resto, de mayor a menor importe
+        if (consulta.getDimension() != ConsultaVentas.Dimension.HORA) {
+            lista.sort(Comparator.comparingLong(Fila::getCentavos).reversed());
+        }
+        this.filas = List.copyOf(lista);
+    }
+
+    public ConsultaVentas getConsulta() { return consulta; }
+    public List<Fila> getFilas() { return filas; }
+    public int getFilasRecorridas() { return filasRecorridas; }
+    public double getMilisegundos() { return nanos / 1_000_000.0; }
+
+    /**
+     * Nombre del método de pago para un código de la dimensión METODO_PAGO.
+     */
+    public String getMetodo(int codigo) {
+        return codigo < metodos.size() ? metodos.get(codigo) : "Sin registrar";
+    }
+
+    public long getTotalCentavos() {
+        return filas.stream().mapToLong(Fila::getCentavos).sum();
+    }
+
+    /**
+     * Una fila del resultado: clave del grupo y sus acumulados.
+     */
+    public static class Fila {
+        private final int clave;
+        private final long unidades;
+        private final long centavos;
+        private final long transacciones;
+
+        Fila(int clave, long unidades, long centavos, long transacciones) {
+            this.clave = clave;
+            this.unidades = unidades;
+            this.centavos = centavos;
+            this.transacciones = transacciones;
+        }
+
+        public int getClave() { return clave; }
+        public long getUnidades() { return unidades; }
+        public long getCentavos() { return centavos; }
+        public long getTransacciones() { return transacciones; }
+    }
+}
@@ -0,0 +1,133 @@
+package com.orderlink.pos.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * VentasColumnares guarda las líneas de venta en arreglos primitivos, una columna por campo.
+ * Solo se agregan filas al final, por lo que una {@link Vista} tomada en un momento dado
+ * sigue siendo válida aunque después se sigan agregando ventas.
+ */
+public class VentasColumnares {
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    private int[] ventaId = new int[CAPACIDAD_INICIAL];
+    private int[] productoId = new int[CAPACIDAD_INICIAL];
+    private int[] usuarioId = new int[CAPACIDAD_INICIAL];
+    private int[] metodoPago = new int[CAPACIDAD_INICIAL];
+    private long[] fecha = new long[CAPACIDAD_INICIAL];
+    private int[] cantidad = new int[CAPACIDAD_INICIAL];
+    private long[] centavos = new long[CAPACIDAD_INICIAL];
+    private int filas;
+    private long ultimoItemId;
+    private int maxProducto;
+    private int maxUsuario;
+
+    // Diccionario de métodos de pago: texto -> código entero
+    private final Map<String, Integer> codigosMetodo = new HashMap<>();
+    private final List<String> metodos = new ArrayList<>();
+
+    /**
+     * Agrega una línea de venta.
+     * @param itemId id de sale_items (marca de agua para la carga incremental)
+     * @param fechaLocal segundos de la fecha local de la venta (ver {@link MotorAnalitico})
+     * @param subtotalCentavos importe de la línea en centavos
+     */
+    public synchronized void agregar(long itemId, int venta, int producto, int usuario, String metodo,
+                                     long fechaLocal, int unidades, long subtotalCentavos) {
+        if (filas == ventaId.length) {
+            crecer();
+        }
+        ventaId[filas] = venta;
+        productoId[filas] = producto;
+        usuarioId[filas] = usuario;
+        metodoPago[filas] = codificarMetodo(metodo);
+        fecha[filas] = fechaLocal;
+        cantidad[filas] = unidades;
+        centavos[filas] = subtotalCentavos;
+        filas++;
+        maxProducto = Math.max(maxProducto, producto);
+        maxUsuario = Math.max(maxUsuario, usuario);
+        ultimoItemId = Math.max(ultimoItemId, itemId);
+    }
+
+    /**
+     * Id del último ítem cargado; la siguiente carga incremental parte de aquí.
+     */
+    public synchronized long getUltimoItemId() {
+        return ultimoItemId;
+    }
+
+    /**
+     * Toma una vista inmutable de las filas cargadas hasta ahora.
+     */
+    public synchronized Vista vista() {
+        return new Vista(filas, ventaId, productoId, usuarioId, metodoPago, fecha, cantidad, centavos,
+                maxProducto, maxUsuario, List.copyOf(metodos));
+    }
+
+    private int codificarMetodo(String metodo) {
+        String clave = metodo == null ? "Sin registrar" : metodo;
+        Integer codigo = codigosMetodo.get(clave);
+        if (codigo == null) {
+            codigo = metodos.size();
+            metodos.add(clave);
+            codigosMetodo.put(clave, codigo);
+        }
+        return codigo;
+    }
+
+    private void crecer() {
+        int nueva = ventaId.length * 2;
+        ventaId = java.util.Arrays.copyOf(ventaId, nueva);
+        productoId = java.util.Arrays.copyOf(productoId, nueva);
+        usuarioId = java.util.Arrays.copyOf(usuarioId, nueva);
+        metodoPago = java.util.Arrays.copyOf(metodoPago, nueva);
+        fecha = java.util.Arrays.copyOf(fecha, nueva);
+        cantidad = java.util.Arrays.copyOf(cantidad, nueva);
+        centavos = java.util.Arrays.copyOf(centavos, nueva);
+    }
+
+    /**
+     * Vista de solo lectura sobre las columnas. Solo se leen las primeras {@code filas} posiciones,
+     * que ya no cambian después de escritas.
+     */
+    public static final class Vista {
+        final int filas;
+        final int[] ventaId;
+        final int[] productoId;
+        final int[] usuarioId;
+        final int[] metodoPago;
+        final long[] fecha;
+        final int[] cantidad;
+        final long[] centavos;
+        final int maxProducto;
+        final int maxUsuario;
+        final List<String> metodos;
+
+        private Vista(int filas, int[] ventaId, int[] productoId, int[] usuarioId, int[] metodoPago,
+                      long[] fecha, int[] cantidad, long[] centavos, int maxProducto, int maxUsuario,
+                      List<String> metodos) {
+            this.filas = filas;
+            this.ventaId = ventaId;
+            this.productoId = productoId;
+            this.usuarioId = usuarioId;
+            this.metodoPago = metodoPago;
+            this.fecha = fecha;
+            this.cantidad = cantidad;
+            this.centavos = centavos;
+            this.maxProducto = maxProducto;
+            this.maxUsuario = maxUsuario;
+            this.metodos = metodos;
+        }
+
+        public int getFilas() { return filas; }
+        public List<String> getMetodos() { return metodos; }
+        public int getMaxProducto() { return maxProducto; }
+        public int getProductoId(int fila) { return productoId[fila]; }
+        public long getFecha(int fila) { return fecha[fila]; }
+        public int getCantidad(int fila) { return cantidad[fila]; }
+    }
+}
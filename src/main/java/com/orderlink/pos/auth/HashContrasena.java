@@ -0,0 +1,87 @@
+package com.orderlink.pos.auth;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * HashContrasena genera y verifica hashes PBKDF2-HMAC-SHA256 con sal aleatoria.
+ * <p>
+ * Formato guardado en {@code users.password}: {@code pbkdf2$iteraciones$sal$hash} (Base64).
+ * Las iteraciones quedan en cada hash, así se pueden subir en el futuro y rehashear al
+ * iniciar sesión sin invalidar las contraseñas existentes.
+ */
+public final class HashContrasena {
+    private static final String PREFIJO = "pbkdf2";
+    private static final String ALGORITMO = "PBKDF2WithHmacSHA256";
+    // Ajustado para ~100 ms por verificación en una PC de caja
+    static final int ITERACIONES = 120_000;
+    private static final int BYTES_SAL = 16;
+    private static final int BITS_HASH = 256;
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    private HashContrasena() {}
+
+    /**
+     * Genera el hash de una contraseña con una sal nueva.
+     */
+    public static String generar(String contrasena) {
+        byte[] sal = new byte[BYTES_SAL];
+        ALEATORIO.nextBytes(sal);
+        byte[] hash = derivar(contrasena, sal, ITERACIONES);
+        Base64.Encoder b64 = Base64.getEncoder();
+        return PREFIJO + "$" + ITERACIONES + "$" + b64.encodeToString(sal) + "$" + b64.encodeToString(hash);
+    }
+
+    /**
+     * Verifica una contraseña contra un hash guardado, en tiempo constante respecto al hash.
+     * @return false si no coincide o si el hash guardado no tiene el formato esperado
+     */
+    public static boolean verificar(String contrasena, String guardado) {
+        String[] partes = guardado.split("\\$");
+        if (partes.length != 4 || !PREFIJO.equals(partes[0])) {
+            return false;
+        }
+        try {
+            int iteraciones = Integer.parseInt(partes[1]);
+            byte[] sal = Base64.getDecoder().decode(partes[2]);
+            byte[] esperado = Base64.getDecoder().decode(partes[3]);
+            return MessageDigest.isEqual(esperado, derivar(contrasena, sal, iteraciones));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Indica si el valor guardado ya es un hash (y no una contraseña en texto plano).
+     */
+    public static boolean esHash(String guardado) {
+        return guardado != null && guardado.startsWith(PREFIJO + "$");
+    }
+
+    /**
+     * Indica si el hash fue generado con menos iteraciones que las actuales.
+     */
+    public static boolean requiereActualizar(String guardado) {
+        String[] partes = guardado.split("\\$");
+        try {
+            return partes.length != 4 || Integer.parseInt(partes[1]) < ITERACIONES;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static byte[] derivar(String contrasena, byte[] sal, int iteraciones) {
+        PBEKeySpec spec = new PBEKeySpec(contrasena.toCharArray(), sal, iteraciones, BITS_HASH);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITMO).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 no disponible", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.orderlink.pos.auth;
+
+/**
+ * ResultadoLogin describe el resultado de un intento de inicio de sesión.
+ */
+public class ResultadoLogin {
+
+    public enum Estado {
+        EXITO,
+        CREDENCIALES_INVALIDAS,
+        BLOQUEADO,
+        OCUPADO
+    }
+
+    private final Estado estado;
+    private final int usuarioId;
+    private final String rol;
+    private final long segundosBloqueo;
+
+    private ResultadoLogin(Estado estado, int usuarioId, String rol, long segundosBloqueo) {
+        this.estado = estado;
+        this.usuarioId = usuarioId;
+        this.rol = rol;
+        this.segundosBloqueo = segundosBloqueo;
+    }
+
+    static ResultadoLogin exito(int usuarioId, String rol) {
+        return new ResultadoLogin(Estado.EXITO, usuarioId, rol, 0);
+    }
+
+    static ResultadoLogin invalido() {
+        return new ResultadoLogin(Estado.CREDENCIALES_INVALIDAS, 0, null, 0);
+    }
+
+    static ResultadoLogin bloqueado(long segundos) {
+        return new ResultadoLogin(Estado.BLOQUEADO, 0, null, segundos);
+    }
+
+    static ResultadoLogin ocupado() {
+        return new ResultadoLogin(Estado.OCUPADO, 0, null, 0);
+    }
+
+    public Estado getEstado() { return estado; }
+    public int getUsuarioId() { return usuarioId; }
+    public String getRol() { return rol; }
+    public long getSegundosBloqueo() { return segundosBloqueo; }
+}
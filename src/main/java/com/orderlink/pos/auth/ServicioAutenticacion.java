@@ -0,0 +1,207 @@
+package com.orderlink.pos.auth;
+
+import com.orderlink.pos.db.DatabaseManager;
+import com.orderlink.pos.model.Usuario;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ServicioAutenticacion verifica credenciales fuera del hilo de JavaFX.
+ * <p>
+ * Las verificaciones PBKDF2 corren en un pool pequeño con cola acotada: cada hash tarda un
+ * tiempo fijo y, si la cola está llena o se supera {@value #PRESUPUESTO_MS} ms, el intento
+ * termina como {@link ResultadoLogin.Estado#OCUPADO} en lugar de esperar sin límite.
+ * Los usuarios se guardan en una caché en memoria. La aplicación no edita usuarios: la única
+ * escritura es el re-hash al iniciar sesión, que descarta la entrada del usuario en la caché.
+ * Tras {@value #MAX_FALLOS} fallos seguidos, el usuario queda bloqueado por unos minutos.
+ * Un intento que ya respondió {@code OCUPADO} no cuenta como fallo ni como acierto, y los
+ * contadores sin fallos recientes se descartan para que usuarios inexistentes no se acumulen.
+ */
+public class ServicioAutenticacion {
+    private static final ServicioAutenticacion INSTANCIA = new ServicioAutenticacion();
+
+    static final int MAX_FALLOS = 5;
+    private static final long BLOQUEO_MS = TimeUnit.MINUTES.toMillis(5);
+    static final long PRESUPUESTO_MS = 2000;
+    private static final int COLA_MAXIMA = 4;
+
+    // Caché de usuarios por nombre; se carga completa la primera vez
+    private final Map<String, Usuario> usuarios = new ConcurrentHashMap<>();
+    private volatile boolean cacheCargada;
+    private final Map<String, Intentos> intentos = new ConcurrentHashMap<>();
+    // Hash de referencia para usuarios inexistentes: la respuesta tarda lo mismo que con uno real
+    private volatile String hashFicticio;
+
+    private final ThreadPoolExecutor verificadores;
+
+    private ServicioAutenticacion() {
+        int hilos = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors()));
+        AtomicInteger contador = new AtomicInteger();
+        verificadores = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(COLA_MAXIMA), r -> {
+                Thread t = new Thread(r, "autenticacion-" + contador.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static ServicioAutenticacion getInstance() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Verifica usuario y contraseña en el pool de verificación.
+     * @return futuro con el resultado; nunca se completa con excepción
+     */
+    public CompletableFuture<ResultadoLogin> autenticar(String usuario, String contrasena) {
+        long bloqueo = segundosBloqueo(usuario);
+        if (bloqueo > 0) {
+            return CompletableFuture.completedFuture(ResultadoLogin.bloqueado(bloqueo));
+        }
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PRESUPUESTO_MS);
+        try {
+            return CompletableFuture.supplyAsync(() -> verificar(usuario, contrasena, limite), verificadores)
+                .exceptionally(e -> ResultadoLogin.ocupado())
+                .completeOnTimeout(ResultadoLogin.ocupado(), PRESUPUESTO_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResultadoLogin.ocupado());
+        }
+    }
+
+    /**
+     * @param limite instante ({@link System#nanoTime()}) en que el intento ya respondió OCUPADO;
+     *               pasado ese punto no se registran fallos ni aciertos
+     */
+    private ResultadoLogin verificar(String usuario, String contrasena, long limite) {
+        if (vencido(limite)) {
+            return ResultadoLogin.ocupado();
+        }
+        Usuario u;
+        try {
+            u = buscar(usuario);
+        } catch (Exception e) {
+            return ResultadoLogin.ocupado();
+        }
+        if (u == null) {
+            HashContrasena.verificar(contrasena, hashFicticio());
+            if (vencido(limite)) {
+                return ResultadoLogin.ocupado();
+            }
+            registrarFallo(usuario);
+            return ResultadoLogin.invalido();
+        }
+        boolean valida = HashContrasena.esHash(u.getContrasena())
+            ? HashContrasena.verificar(contrasena, u.getContrasena())
+            : MessageDigest.isEqual(u.getContrasena().getBytes(StandardCharsets.UTF_8), contrasena.getBytes(StandardCharsets.UTF_8));
+        if (vencido(limite)) {
+            return ResultadoLogin.ocupado();
+        }
+        if (!valida) {
+            registrarFallo(usuario);
+            return ResultadoLogin.invalido();
+        }
+        intentos.remove(usuario);
+        // Texto plano (base sin migrar) o iteraciones viejas: se guarda un hash nuevo
+        if (!HashContrasena.esHash(u.getContrasena()) || HashContrasena.requiereActualizar(u.getContrasena())) {
+            try {
+                DatabaseManager.actualizarContrasena(usuario, HashContrasena.generar(contrasena));
+            } catch (Exception e) {
+                System.err.println("No se pudo actualizar el hash de " + usuario + ": " + e.getMessage());
+            }
+            // La próxima búsqueda lee el hash nuevo de la base
+            usuarios.remove(usuario);
+        }
+        return ResultadoLogin.exito(u.getId(), u.getRol());
+    }
+
+    private Usuario buscar(String usuario) throws Exception {
+        if (!cacheCargada) {
+            synchronized (this) {
+                if (!cacheCargada) {
+                    for (Usuario u : DatabaseManager.obtenerUsuarios()) {
+                        usuarios.put(u.getNombre(), u);
+                    }
+                    cacheCargada = true;
+                }
+            }
+        }
+        Usuario u = usuarios.get(usuario);
+        if (u == null) {
+            // Usuario agregado o invalidado después de cargar la caché
+            u = DatabaseManager.obtenerUsuario(usuario);
+            if (u != null) {
+                usuarios.put(usuario, u);
+            }
+        }
+        return u;
+    }
+
+    private String hashFicticio() {
+        if (hashFicticio == null) {
+            hashFicticio = HashContrasena.generar("usuario-inexistente");
+        }
+        return hashFicticio;
+    }
+
+    private static boolean vencido(long limite) {
+        return System.nanoTime() - limite >= 0;
+    }
+
+    private long segundosBloqueo(String usuario) {
+        Intentos i = intentos.get(usuario);
+        if (i == null) {
+            return 0;
+        }
+        long restante = i.segundosRestantes();
+        if (restante == 0 && i.caducado()) {
+            // Terminó el bloqueo (o no hubo fallos recientes): se descarta el contador
+            intentos.remove(usuario, i);
+        }
+        return restante;
+    }
+
+    private void registrarFallo(String usuario) {
+        intentos.values().removeIf(Intentos::caducado);
+        intentos.computeIfAbsent(usuario, k -> new Intentos()).fallo();
+    }
+
+    /**
+     * Fallos consecutivos de un usuario y hasta cuándo está bloqueado.
+     */
+    private static class Intentos {
+        private int fallos;
+        private long bloqueadoHasta;
+        private long ultimoFallo;
+
+        synchronized void fallo() {
+            ultimoFallo = System.currentTimeMillis();
+            fallos++;
+            if (fallos >= MAX_FALLOS) {
+                bloqueadoHasta = System.currentTimeMillis() + BLOQUEO_MS;
+                fallos = 0;
+            }
+        }
+
+        synchronized long segundosRestantes() {
+            long restante = bloqueadoHasta - System.currentTimeMillis();
+            return restante > 0 ? TimeUnit.MILLISECONDS.toSeconds(restante) + 1 : 0;
+        }
+
+        /**
+         * Sin bloqueo vigente ni fallos en los últimos minutos: el contador ya no aporta nada.
+         */
+        synchronized boolean caducado() {
+            long ahora = System.currentTimeMillis();
+            return bloqueadoHasta <= ahora && ultimoFallo + BLOQUEO_MS <= ahora;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.orderlink.pos.controller;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ActualizadorUI agrupa cambios rápidos del modelo en una sola actualización por pulso de JavaFX.
+ * <p>
+ * Cada actualización se registra con una clave; si la misma clave se solicita varias veces antes
+ * del siguiente pulso, solo se ejecuta la última. Así, al escanear productos muy rápido o al
+ * recargar mucho stock, el total y las filas se recalculan una vez por cuadro y no por evento.
+ * Se puede llamar desde cualquier hilo; las acciones siempre corren en el hilo de JavaFX.
+ */
+public class ActualizadorUI {
+    private final Map<Object, Runnable> pendientes = new LinkedHashMap<>();
+    private boolean programado;
+
+    private final AnimationTimer pulso = new AnimationTimer() {
+        @Override
+        public void handle(long ahora) {
+            stop();
+            ejecutarPendientes();
+        }
+    };
+
+    /**
+     * Solicita una actualización para el próximo pulso. Reemplaza cualquier
+     * actualización pendiente con la misma clave.
+     * @param clave identifica qué se actualiza (por ejemplo, "total" o el id de un producto)
+     * @param accion código a ejecutar en el hilo de JavaFX
+     */
+    public void solicitar(Object clave, Runnable accion) {
+        boolean iniciar;
+        synchronized (pendientes) {
+            pendientes.put(clave, accion);
+            iniciar = !programado;
+            programado = true;
+        }
+        if (iniciar) {
+            if (Platform.isFxApplicationThread()) {
+                pulso.start();
+            } else {
+                Platform.runLater(pulso::start);
+            }
+        }
+    }
+
+    private void ejecutarPendientes() {
+        Runnable[] acciones;
+        synchronized (pendientes) {
+            acciones = pendientes.values().toArray(new Runnable[0]);
+            pendientes.clear();
+            programado = false;
+        }
+        for (Runnable accion : acciones) {
+            accion.run();
+        }
+    }
+}
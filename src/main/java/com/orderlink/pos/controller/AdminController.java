@@ -1,15 +1,29 @@
 package com.orderlink.pos.controller;
 
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.VBox;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import com.orderlink.pos.model.Producto;
+import com.orderlink.pos.analytics.ConsultaVentas;
+import com.orderlink.pos.analytics.MotorAnalitico;
+import com.orderlink.pos.analytics.ResultadoConsulta;
 import com.orderlink.pos.db.DatabaseManager;
-import java.util.Optional;
+import com.orderlink.pos.forecast.PronosticoDemanda;
+import com.orderlink.pos.forecast.SugerenciaReposicion;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Controlador para la vista de Administrador.
@@ -22,10 +36,26 @@ public class AdminController {
     @FXML private Label transaccionesLabel;
     @FXML private Label productoLabel;
     @FXML private Button agregarBtn;
+    @FXML private Button aplicarSugerenciasBtn;
     @FXML private TableView<Producto> inventarioTable;
     @FXML private Button reporteVentasBtn;
     @FXML private Button reporteInventarioBtn;
     @FXML private Button cierreBtn;
+    // Reporte ad-hoc de ventas
+    @FXML private ComboBox<ConsultaVentas.Dimension> dimensionCombo;
+    @FXML private ComboBox<String> periodoCombo;
+    @FXML private TableView<ResultadoConsulta.Fila> reporteTable;
+    @FXML private Label reporteLabel;
+
+    // Nombres para mostrar las claves de producto y cajero en los reportes
+    private final Map<Integer, String> nombresProductos = new HashMap<>();
+    private Map<Integer, String> nombresUsuarios = new HashMap<>();
+    private ResultadoConsulta ultimoResultado;
+    // Última consulta pedida; las respuestas de consultas anteriores que lleguen después se descartan
+    private ConsultaVentas consultaActual;
+
+    // Agrupa las actualizaciones de stock en un solo pulso de la interfaz
+    private final ActualizadorUI actualizador = new ActualizadorUI();
 
     /**
      * Inicializa la vista de administrador.
@@ -33,20 +63,14 @@ public class AdminController {
      */
     @FXML
     private void initialize() {
-        setupInventarioTable(); // Configura columnas de la tabla
+        setupInventarioTable(); // Configura columnas y filas de la tabla
         cargarProductos();      // Carga productos desde la base de datos
         agregarBtn.setOnAction(e -> mostrarDialogoProducto(null)); // Botón agregar
-        // Doble clic para editar producto
-        inventarioTable.setRowFactory(tv -> {
-            TableRow<Producto> row = new TableRow<>();
-            row.setOnMouseClicked(event -> {
-                if (event.getClickCount() == 2 && !row.isEmpty()) {
-                    mostrarDialogoProducto(row.getItem());
-                }
-            });
-            return row;
-        });
+        aplicarSugerenciasBtn.setOnAction(e -> aplicarUmbralesSugeridos());
+        actualizarPronostico(); // Umbrales sugeridos según el historial de ventas
         inventarioTable.setContextMenu(crearMenuContextual()); // Menú contextual
+        setupReportes();        // Configura el reporte ad-hoc de ventas
+        actualizarDashboard();  // Métricas del día desde el motor analítico
     }
 
     /**
@@ -55,32 +79,49 @@ public class AdminController {
     private void setupInventarioTable() {
         inventarioTable.getColumns().clear();
         TableColumn<Producto, String> nombreCol = new TableColumn<>("Nombre");
-        nombreCol.setCellValueFactory(new PropertyValueFactory<>("nombre"));
+        nombreCol.setCellValueFactory(c -> c.getValue().nombreProperty());
         TableColumn<Producto, String> descCol = new TableColumn<>("Descripción");
-        descCol.setCellValueFactory(new PropertyValueFactory<>("descripcion"));
+        descCol.setCellValueFactory(c -> c.getValue().descripcionProperty());
         TableColumn<Producto, Double> precioCol = new TableColumn<>("Precio");
-        precioCol.setCellValueFactory(new PropertyValueFactory<>("precio"));
+        precioCol.setCellValueFactory(c -> c.getValue().precioProperty().asObject());
         TableColumn<Producto, Integer> cantidadCol = new TableColumn<>("Stock");
-        cantidadCol.setCellValueFactory(new PropertyValueFactory<>("cantidad"));
+        cantidadCol.setCellValueFactory(c -> c.getValue().cantidadProperty().asObject());
         TableColumn<Producto, Integer> umbralCol = new TableColumn<>("Umbral");
-        umbralCol.setCellValueFactory(new PropertyValueFactory<>("umbral"));
-        inventarioTable.getColumns().addAll(nombreCol, descCol, precioCol, cantidadCol, umbralCol);
-    }
+        umbralCol.setCellValueFactory(c -> c.getValue().umbralProperty().asObject());
+        TableColumn<Producto, Integer> sugeridoCol = new TableColumn<>("Umbral sugerido");
+        sugeridoCol.setCellValueFactory(c -> c.getValue().umbralSugeridoProperty());
+        TableColumn<Producto, Integer> pedidoCol = new TableColumn<>("Pedido sugerido");
+        pedidoCol.setCellValueFactory(c -> {
+            Producto p = c.getValue();
+            return Bindings.createObjectBinding(
+                () -> p.getStockObjetivo() == null ? null : Math.max(0, p.getStockObjetivo() - p.getCantidad()),
+                p.stockObjetivoProperty(), p.cantidadProperty());
+        });
+        inventarioTable.getColumns().addAll(nombreCol, descCol, precioCol, cantidadCol, umbralCol, sugeridoCol, pedidoCol);
+        // Filas: doble clic para editar y alerta visual de stock bajo.
+        // La fila escucha stock y umbral de su producto, así se recolorea sin refrescar la tabla.
+        inventarioTable.setRowFactory(tv -> {
+            TableRow<Producto> row = new TableRow<>() {
+                private final InvalidationListener estilo = o -> actualizarEstilo();
 
-    /**
-     * Carga los productos desde la base de datos y los muestra en la tabla.
-     * Resalta en rojo los productos con stock bajo.
-     */
-    private void cargarProductos() {
-        try {
-            List<Producto> productos = DatabaseManager.obtenerProductos();
-            inventarioTable.getItems().setAll(productos);
-            // Alerta visual de stock bajo
-            inventarioTable.setRowFactory(tv -> new TableRow<>() {
                 @Override
                 protected void updateItem(Producto item, boolean empty) {
+                    Producto anterior = getItem();
+                    if (anterior != null) {
+                        anterior.cantidadProperty().removeListener(estilo);
+                        anterior.umbralProperty().removeListener(estilo);
+                    }
                     super.updateItem(item, empty);
-                    if (item == null || empty) {
+                    if (item != null && !empty) {
+                        item.cantidadProperty().addListener(estilo);
+                        item.umbralProperty().addListener(estilo);
+                    }
+                    actualizarEstilo();
+                }
+
+                private void actualizarEstilo() {
+                    Producto item = getItem();
+                    if (item == null || isEmpty()) {
                         setStyle("");
                     } else if (item.getCantidad() <= item.getUmbral()) {
                         setStyle("-fx-background-color: #ffcccc;");
@@ -88,12 +129,201 @@ public class AdminController {
                         setStyle("");
                     }
                 }
+            };
+            row.setOnMouseClicked(event -> {
+                if (event.getClickCount() == 2 && !row.isEmpty()) {
+                    mostrarDialogoProducto(row.getItem());
+                }
             });
+            return row;
+        });
+    }
+
+    /**
+     * Carga los productos desde la base de datos y los muestra en la tabla.
+     * Los productos que ya están en la tabla se actualizan en su lugar, agrupando los cambios
+     * en un solo pulso; solo se agregan o quitan las filas que aparecen o desaparecen.
+     */
+    private void cargarProductos() {
+        try {
+            List<Producto> productos = DatabaseManager.obtenerProductos();
+            Map<Integer, Producto> actuales = new HashMap<>();
+            for (Producto p : inventarioTable.getItems()) {
+                actuales.put(p.getId(), p);
+            }
+            List<Producto> nuevos = new ArrayList<>();
+            for (Producto p : productos) {
+                nombresProductos.put(p.getId(), p.getNombre());
+                Producto existente = actuales.remove(p.getId());
+                if (existente != null) {
+                    actualizador.solicitar(p.getId(), () -> existente.copiarDe(p));
+                } else {
+                    nuevos.add(p);
+                }
+            }
+            inventarioTable.getItems().removeAll(actuales.values());
+            inventarioTable.getItems().addAll(nuevos);
+            aplicarSugerencias(PronosticoDemanda.getInstance().getSugerencias(), inventarioTable.getItems());
         } catch (Exception e) {
             mostrarAlerta("Error", "No se pudo cargar el inventario.", Alert.AlertType.ERROR);
         }
     }
 
+    /**
+     * Recalcula el pronóstico de demanda en segundo plano. Cada cálculo, incluido el nocturno,
+     * muestra los umbrales sugeridos en todas las filas de la tabla. El recálculo nocturno se
+     * programa aquí y no al arrancar, para que las cajas sin sesión de administrador no carguen
+     * el historial de ventas.
+     */
+    private void actualizarPronostico() {
+        PronosticoDemanda pronostico = PronosticoDemanda.getInstance();
+        pronostico.setAlActualizar(sugerencias ->
+            actualizador.solicitar("sugerencias", () -> aplicarSugerencias(sugerencias, inventarioTable.getItems())));
+        pronostico.calcular();
+        pronostico.programarNocturno();
+    }
+
+    /**
+     * Copia las sugerencias del pronóstico a los productos de la tabla.
+     */
+    private void aplicarSugerencias(Map<Integer, SugerenciaReposicion> sugerencias, List<Producto> productos) {
+        for (Producto p : productos) {
+            SugerenciaReposicion s = sugerencias.get(p.getId());
+            p.setUmbralSugerido(s != null ? s.getPuntoReorden() : null);
+            p.setStockObjetivo(s != null ? s.getStockObjetivo() : null);
+        }
+    }
+
+    /**
+     * Guarda como umbral de stock bajo el punto de reorden sugerido de cada producto.
+     */
+    private void aplicarUmbralesSugeridos() {
+        Map<Integer, Integer> umbrales = new HashMap<>();
+        for (Producto p : inventarioTable.getItems()) {
+            if (p.getUmbralSugerido() != null && p.getUmbralSugerido() != p.getUmbral()) {
+                umbrales.put(p.getId(), p.getUmbralSugerido());
+            }
+        }
+        if (umbrales.isEmpty()) {
+            mostrarAlerta("Sin cambios", "No hay umbrales sugeridos distintos a los actuales.", Alert.AlertType.INFORMATION);
+            return;
+        }
+        try {
+            DatabaseManager.actualizarUmbrales(umbrales);
+            mostrarAlerta("Éxito", umbrales.size() + " umbrales actualizados.", Alert.AlertType.INFORMATION);
+            cargarProductos();
+        } catch (Exception e) {
+            mostrarAlerta("Error", "No se pudieron actualizar los umbrales.", Alert.AlertType.ERROR);
+        }
+    }
+
+    /**
+     * Configura los controles del reporte ad-hoc de ventas.
+     * Las consultas se ejecutan en el motor analítico, fuera del hilo de la interfaz.
+     */
+    private void setupReportes() {
+        try {
+            nombresUsuarios = DatabaseManager.obtenerNombresUsuarios();
+        } catch (Exception e) {
+            nombresUsuarios = new HashMap<>();
+        }
+        dimensionCombo.getItems().setAll(ConsultaVentas.Dimension.values());
+        dimensionCombo.setValue(ConsultaVentas.Dimension.HORA);
+        periodoCombo.getItems().setAll("Hoy", "Últimos 7 días", "Últimos 30 días", "Último año");
+        periodoCombo.setValue("Hoy");
+
+        reporteTable.getColumns().clear();
+        TableColumn<ResultadoConsulta.Fila, String> grupoCol = new TableColumn<>("Grupo");
+        grupoCol.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(etiquetaGrupo(c.getValue().getClave())));
+        TableColumn<ResultadoConsulta.Fila, Long> unidadesCol = new TableColumn<>("Unidades");
+        unidadesCol.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().getUnidades()));
+        TableColumn<ResultadoConsulta.Fila, Long> ventasCol = new TableColumn<>("Ventas");
+        ventasCol.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().getTransacciones()));
+        TableColumn<ResultadoConsulta.Fila, String> importeCol = new TableColumn<>("Importe");
+        importeCol.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(formatearCentavos(c.getValue().getCentavos())));
+        reporteTable.getColumns().addAll(grupoCol, unidadesCol, ventasCol, importeCol);
+
+        dimensionCombo.setOnAction(e -> consultarReporte());
+        periodoCombo.setOnAction(e -> consultarReporte());
+        reporteVentasBtn.setOnAction(e -> consultarReporte());
+    }
+
+    /**
+     * Ejecuta la consulta seleccionada y muestra el resultado al terminar.
+     */
+    private void consultarReporte() {
+        ConsultaVentas.Dimension dimension = dimensionCombo.getValue();
+        LocalDateTime hasta = LocalDate.now().plusDays(1).atStartOfDay();
+        LocalDateTime desde = switch (periodoCombo.getValue()) {
+            case "Últimos 7 días" -> hasta.minusDays(7);
+            case "Últimos 30 días" -> hasta.minusDays(30);
+            case "Último año" -> hasta.minusYears(1);
+            default -> hasta.minusDays(1);
+        };
+        ConsultaVentas consulta = new ConsultaVentas(dimension,
+                MotorAnalitico.segundosLocales(desde), MotorAnalitico.segundosLocales(hasta), 0);
+        consultaActual = consulta;
+        reporteLabel.setText("Consultando...");
+        MotorAnalitico.getInstance().consultar(consulta).whenComplete((resultado, error) -> Platform.runLater(() -> {
+            if (consulta != consultaActual) {
+                return;
+            }
+            if (error != null) {
+                reporteLabel.setText("No se pudo generar el reporte.");
+                return;
+            }
+            ultimoResultado = resultado;
+            reporteTable.getItems().setAll(resultado.getFilas());
+            reporteLabel.setText(String.format("Total: %s — %d líneas analizadas en %.1f ms",
+                    formatearCentavos(resultado.getTotalCentavos()), resultado.getFilasRecorridas(), resultado.getMilisegundos()));
+        }));
+    }
+
+    /**
+     * Actualiza las métricas del dashboard con las ventas del día.
+     */
+    private void actualizarDashboard() {
+        LocalDateTime hoy = LocalDate.now().atStartOfDay();
+        long desde = MotorAnalitico.segundosLocales(hoy);
+        long hasta = MotorAnalitico.segundosLocales(hoy.plusDays(1));
+        MotorAnalitico motor = MotorAnalitico.getInstance();
+        motor.consultar(new ConsultaVentas(ConsultaVentas.Dimension.METODO_PAGO, desde, hasta, 0))
+            .thenAcceptBoth(motor.consultar(new ConsultaVentas(ConsultaVentas.Dimension.PRODUCTO, desde, hasta, 0)),
+                (porMetodo, porProducto) -> {
+                    long transacciones = porMetodo.getFilas().stream().mapToLong(ResultadoConsulta.Fila::getTransacciones).sum();
+                    Optional<ResultadoConsulta.Fila> masVendido = porProducto.getFilas().stream()
+                        .max(Comparator.comparingLong(ResultadoConsulta.Fila::getUnidades));
+                    // nombresProductos solo se toca en el hilo de JavaFX
+                    Platform.runLater(() -> {
+                        ventasLabel.setText("Ventas del día: " + formatearCentavos(porMetodo.getTotalCentavos()));
+                        transaccionesLabel.setText("Transacciones: " + transacciones);
+                        productoLabel.setText("Producto más vendido: " + masVendido
+                            .map(f -> nombresProductos.getOrDefault(f.getClave(), "#" + f.getClave()))
+                            .orElse("---"));
+                    });
+                });
+    }
+
+    /**
+     * Traduce la clave de un grupo del reporte a un texto legible.
+     */
+    private String etiquetaGrupo(int clave) {
+        return switch (dimensionReporte()) {
+            case HORA -> String.format("%02d:00", clave);
+            case PRODUCTO -> nombresProductos.getOrDefault(clave, "#" + clave);
+            case CAJERO -> nombresUsuarios.getOrDefault(clave, "#" + clave);
+            case METODO_PAGO -> ultimoResultado.getMetodo(clave);
+        };
+    }
+
+    private ConsultaVentas.Dimension dimensionReporte() {
+        return ultimoResultado != null ? ultimoResultado.getConsulta().getDimension() : dimensionCombo.getValue();
+    }
+
+    private static String formatearCentavos(long centavos) {
+        return "$" + String.format("%.2f", centavos / 100.0);
+    }
+
     /**
      * Crea el menú contextual para editar o eliminar productos.
      */
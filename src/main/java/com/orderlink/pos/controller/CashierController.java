@@ -1,10 +1,28 @@
 package com.orderlink.pos.controller;
 
+import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
+import com.orderlink.pos.model.ItemVenta;
 import com.orderlink.pos.model.Producto;
+import com.orderlink.pos.model.Sesion;
+import com.orderlink.pos.analytics.MotorAnalitico;
 import com.orderlink.pos.db.DatabaseManager;
+import com.orderlink.pos.pricing.CarritoPrecios;
+import com.orderlink.pos.pricing.MotorPrecios;
+import com.orderlink.pos.receipt.ColaImpresion;
+import com.orderlink.pos.receipt.Recibo;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.*;
 
 /**
@@ -20,27 +38,48 @@ public class CashierController {
     @FXML private Button redoBtn;
     @FXML private Label totalLabel;
     @FXML private Button pagarBtn;
+    @FXML private Button reimprimirBtn;
+    @FXML private Label estadoLabel;
 
     // Pilas para deshacer y rehacer acciones en el carrito
     private final Stack<List<CarritoItem>> undoStack = new Stack<>();
     private final Stack<List<CarritoItem>> redoStack = new Stack<>();
 
+    // Descuentos del carrito, recalculados solo para las reglas del producto que cambia
+    private CarritoPrecios precios;
+
+    // Agrupa los recálculos del total en un solo pulso de la interfaz
+    private final ActualizadorUI actualizador = new ActualizadorUI();
+
     /**
      * Clase interna que representa un ítem en el carrito de compras.
+     * Cantidad, descuento y subtotal son propiedades: al cambiar, solo se redibujan sus celdas.
      */
     public static class CarritoItem {
         private final Producto producto;
-        private int cantidad;
+        private final IntegerProperty cantidad = new SimpleIntegerProperty();
+        private final DoubleProperty descuento = new SimpleDoubleProperty();
+        private final StringProperty promocion = new SimpleStringProperty("");
+        private final ReadOnlyDoubleWrapper subtotal = new ReadOnlyDoubleWrapper();
         public CarritoItem(Producto producto, int cantidad) {
             this.producto = producto;
-            this.cantidad = cantidad;
+            this.cantidad.set(cantidad);
+            this.subtotal.bind(this.cantidad.multiply(producto.precioProperty()).subtract(descuento));
         }
         public String getNombre() { return producto.getNombre(); }
         public double getPrecio() { return producto.getPrecio(); }
-        public int getCantidad() { return cantidad; }
-        public double getSubtotal() { return cantidad * producto.getPrecio(); }
-        public void setCantidad(int cantidad) { this.cantidad = cantidad; }
+        public int getCantidad() { return cantidad.get(); }
+        public double getDescuento() { return descuento.get(); }
+        public String getPromocion() { return promocion.get(); }
+        public double getSubtotal() { return subtotal.get(); }
+        public void setCantidad(int cantidad) { this.cantidad.set(cantidad); }
+        public void setDescuento(double descuento) { this.descuento.set(descuento); }
+        public void setPromocion(String promocion) { this.promocion.set(promocion); }
         public Producto getProducto() { return producto; }
+        public IntegerProperty cantidadProperty() { return cantidad; }
+        public DoubleProperty descuentoProperty() { return descuento; }
+        public StringProperty promocionProperty() { return promocion; }
+        public ReadOnlyDoubleProperty subtotalProperty() { return subtotal.getReadOnlyProperty(); }
     }
 
     /**
@@ -49,6 +88,8 @@ public class CashierController {
      */
     @FXML
     private void initialize() {
+        MotorPrecios.recargar(); // Compila las promociones vigentes
+        precios = MotorPrecios.getInstance().nuevoCarrito();
         setupCarritoTable(); // Configura columnas de la tabla del carrito
         cargarProductos();   // Carga productos desde la base de datos
         // Doble clic para agregar producto al carrito
@@ -61,6 +102,7 @@ public class CashierController {
         undoBtn.setOnAction(e -> undo());
         redoBtn.setOnAction(e -> redo());
         pagarBtn.setOnAction(e -> pagar());
+        reimprimirBtn.setOnAction(e -> reimprimir());
         actualizarTotal();
     }
 
@@ -70,14 +112,19 @@ public class CashierController {
     private void setupCarritoTable() {
         carritoTable.getColumns().clear();
         TableColumn<CarritoItem, String> nombreCol = new TableColumn<>("Producto");
-        nombreCol.setCellValueFactory(new PropertyValueFactory<>("nombre"));
+        nombreCol.setCellValueFactory(c -> c.getValue().getProducto().nombreProperty());
         TableColumn<CarritoItem, Integer> cantidadCol = new TableColumn<>("Cantidad");
-        cantidadCol.setCellValueFactory(new PropertyValueFactory<>("cantidad"));
+        cantidadCol.setCellValueFactory(c -> c.getValue().cantidadProperty().asObject());
         TableColumn<CarritoItem, Double> precioCol = new TableColumn<>("Precio");
-        precioCol.setCellValueFactory(new PropertyValueFactory<>("precio"));
+        precioCol.setCellValueFactory(c -> c.getValue().getProducto().precioProperty().asObject());
+        precioCol.setCellFactory(col -> celdaMoneda());
+        TableColumn<CarritoItem, String> descuentoCol = new TableColumn<>("Descuento");
+        descuentoCol.setCellValueFactory(c -> Bindings.createStringBinding(() -> textoDescuento(c.getValue()),
+                c.getValue().descuentoProperty(), c.getValue().promocionProperty()));
         TableColumn<CarritoItem, Double> subtotalCol = new TableColumn<>("Subtotal");
-        subtotalCol.setCellValueFactory(new PropertyValueFactory<>("subtotal"));
-        carritoTable.getColumns().addAll(nombreCol, cantidadCol, precioCol, subtotalCol);
+        subtotalCol.setCellValueFactory(c -> c.getValue().subtotalProperty().asObject());
+        subtotalCol.setCellFactory(col -> celdaMoneda());
+        carritoTable.getColumns().addAll(nombreCol, cantidadCol, precioCol, descuentoCol, subtotalCol);
         carritoTable.setRowFactory(tv -> {
             TableRow<CarritoItem> row = new TableRow<>();
             row.setOnMouseClicked(event -> {
@@ -90,6 +137,19 @@ public class CashierController {
         carritoTable.setContextMenu(crearMenuContextualCarrito());
     }
 
+    /**
+     * Celda que muestra un importe con formato de moneda.
+     */
+    private static TableCell<CarritoItem, Double> celdaMoneda() {
+        return new TableCell<>() {
+            @Override
+            protected void updateItem(Double valor, boolean empty) {
+                super.updateItem(valor, empty);
+                setText(empty || valor == null ? null : "$" + String.format("%.2f", valor));
+            }
+        };
+    }
+
     /**
      * Carga los productos desde la base de datos y los muestra en la lista.
      */
@@ -97,6 +157,19 @@ public class CashierController {
         try {
             List<Producto> productos = DatabaseManager.obtenerProductos();
             productosList.getItems().setAll(productos);
+            // Celda tipada: muestra el nombre y se actualiza si el nombre cambia
+            productosList.setCellFactory(lv -> new ListCell<>() {
+                @Override
+                protected void updateItem(Producto item, boolean empty) {
+                    super.updateItem(item, empty);
+                    textProperty().unbind();
+                    if (empty || item == null) {
+                        setText(null);
+                    } else {
+                        textProperty().bind(item.nombreProperty());
+                    }
+                }
+            });
         } catch (Exception e) {
             mostrarAlerta("Error", "No se pudo cargar productos.", Alert.AlertType.ERROR);
         }
@@ -106,15 +179,20 @@ public class CashierController {
      * Agrega un producto al carrito o incrementa su cantidad si ya existe.
      */
     private void agregarAlCarrito(Producto producto) {
-        List<CarritoItem> carrito = new ArrayList<>(carritoTable.getItems());
+        List<CarritoItem> carrito = carritoTable.getItems();
         Optional<CarritoItem> existente = carrito.stream().filter(ci -> ci.getProducto().getId() == producto.getId()).findFirst();
+        // La foto para deshacer se toma antes de modificar la lista o el ítem
+        pushUndo();
+        CarritoItem item;
         if (existente.isPresent()) {
-            existente.get().setCantidad(existente.get().getCantidad() + 1);
+            // Solo cambia la propiedad: la tabla redibuja esa fila, no todas
+            item = existente.get();
+            item.setCantidad(item.getCantidad() + 1);
         } else {
-            carrito.add(new CarritoItem(producto, 1));
+            item = new CarritoItem(producto, 1);
+            carrito.add(item);
         }
-        pushUndo();
-        carritoTable.getItems().setAll(carrito);
+        aplicarPrecios(carrito, item.getProducto(), item.getCantidad());
         actualizarTotal();
     }
 
@@ -131,9 +209,9 @@ public class CashierController {
             try {
                 int nueva = Integer.parseInt(val);
                 if (nueva > 0) {
-                    item.setCantidad(nueva);
                     pushUndo();
-                    carritoTable.refresh();
+                    item.setCantidad(nueva);
+                    aplicarPrecios(carritoTable.getItems(), item.getProducto(), nueva);
                     actualizarTotal();
                 }
             } catch (Exception ignored) {}
@@ -149,8 +227,9 @@ public class CashierController {
         eliminar.setOnAction(e -> {
             CarritoItem item = carritoTable.getSelectionModel().getSelectedItem();
             if (item != null) {
-                carritoTable.getItems().remove(item);
                 pushUndo();
+                carritoTable.getItems().remove(item);
+                aplicarPrecios(carritoTable.getItems(), item.getProducto(), 0);
                 actualizarTotal();
             }
         });
@@ -173,6 +252,7 @@ public class CashierController {
         if (!undoStack.isEmpty()) {
             redoStack.push(clonarCarrito());
             List<CarritoItem> prev = undoStack.pop();
+            recalcularPrecios(prev, LocalTime.now());
             carritoTable.getItems().setAll(prev);
             actualizarTotal();
         }
@@ -185,6 +265,7 @@ public class CashierController {
         if (!redoStack.isEmpty()) {
             undoStack.push(clonarCarrito());
             List<CarritoItem> next = redoStack.pop();
+            recalcularPrecios(next, LocalTime.now());
             carritoTable.getItems().setAll(next);
             actualizarTotal();
         }
@@ -196,21 +277,67 @@ public class CashierController {
     private List<CarritoItem> clonarCarrito() {
         List<CarritoItem> copia = new ArrayList<>();
         for (CarritoItem ci : carritoTable.getItems()) {
-            copia.add(new CarritoItem(ci.getProducto(), ci.getCantidad()));
+            CarritoItem c = new CarritoItem(ci.getProducto(), ci.getCantidad());
+            c.setDescuento(ci.getDescuento());
+            c.setPromocion(ci.getPromocion());
+            copia.add(c);
         }
         return copia;
     }
 
+    /**
+     * Informa al motor de precios el cambio de una línea y actualiza el descuento
+     * de los ítems afectados por las reglas de ese producto.
+     */
+    private void aplicarPrecios(List<CarritoItem> carrito, Producto producto, int cantidad) {
+        Set<Integer> cambiados = precios.actualizar(producto.getId(), cantidad, producto.getPrecio(), LocalTime.now());
+        for (CarritoItem ci : carrito) {
+            if (cambiados.contains(ci.getProducto().getId())) {
+                ci.setDescuento(precios.getDescuento(ci.getProducto().getId()));
+                ci.setPromocion(precios.getPromociones(ci.getProducto().getId()));
+            }
+        }
+    }
+
+    /**
+     * Recalcula los descuentos de todo el carrito a la hora dada: al reemplazarlo completo
+     * (deshacer/rehacer) y al cobrar, para que las promociones por horario sean las vigentes.
+     */
+    private void recalcularPrecios(List<CarritoItem> carrito, LocalTime hora) {
+        Map<Integer, Integer> cantidades = new HashMap<>();
+        Map<Integer, Double> preciosUnitarios = new HashMap<>();
+        for (CarritoItem ci : carrito) {
+            cantidades.put(ci.getProducto().getId(), ci.getCantidad());
+            preciosUnitarios.put(ci.getProducto().getId(), ci.getPrecio());
+        }
+        precios.reemplazar(cantidades, preciosUnitarios, hora);
+        for (CarritoItem ci : carrito) {
+            ci.setDescuento(precios.getDescuento(ci.getProducto().getId()));
+            ci.setPromocion(precios.getPromociones(ci.getProducto().getId()));
+        }
+    }
+
+    /**
+     * Texto de la columna de descuento: importe y promociones aplicadas.
+     */
+    private static String textoDescuento(CarritoItem item) {
+        if (item.getDescuento() <= 0) return "";
+        return "-$" + String.format("%.2f", item.getDescuento()) + " (" + item.getPromocion() + ")";
+    }
+
     /**
      * Actualiza el total mostrado en la vista.
+     * Varias llamadas seguidas (escaneo rápido) se agrupan en un solo recálculo por pulso.
      */
     private void actualizarTotal() {
-        double total = carritoTable.getItems().stream().mapToDouble(CarritoItem::getSubtotal).sum();
-        totalLabel.setText("Total: $" + String.format("%.2f", total));
+        actualizador.solicitar("total", () -> {
+            double total = carritoTable.getItems().stream().mapToDouble(CarritoItem::getSubtotal).sum();
+            totalLabel.setText("Total: $" + String.format("%.2f", total));
+        });
     }
 
     /**
-     * Realiza el proceso de cobro y limpia el carrito.
+     * Realiza el proceso de cobro, registra la venta, encola el recibo y limpia el carrito.
      */
     private void pagar() {
         double total = carritoTable.getItems().stream().mapToDouble(CarritoItem::getSubtotal).sum();
@@ -224,14 +351,68 @@ public class CashierController {
         dialog.setContentText("Selecciona método de pago:");
         Optional<String> res = dialog.showAndWait();
         if (res.isPresent()) {
-            mostrarAlerta("Venta realizada", "Total: $" + String.format("%.2f", total) + "\nPago: " + res.get(), Alert.AlertType.INFORMATION);
+            LocalDateTime fecha = LocalDateTime.now().withNano(0);
+            // Las ventanas horarias (combo de almuerzo, happy hour) se evalúan a la hora del cobro,
+            // no a la hora en que se agregó cada línea
+            recalcularPrecios(carritoTable.getItems(), fecha.toLocalTime());
+            total = carritoTable.getItems().stream().mapToDouble(CarritoItem::getSubtotal).sum();
+            actualizarTotal();
+            List<ItemVenta> items = new ArrayList<>();
+            List<Recibo.Linea> lineas = new ArrayList<>();
+            for (CarritoItem ci : carritoTable.getItems()) {
+                // Se registra el precio de lista y, aparte, el descuento de la línea por promociones
+                items.add(new ItemVenta(ci.getProducto().getId(), ci.getCantidad(), ci.getPrecio(), ci.getDescuento()));
+                lineas.add(new Recibo.Linea(ci.getNombre(), ci.getCantidad(), ci.getPrecio(), ci.getDescuento()));
+            }
+            int ventaId;
+            try {
+                ventaId = DatabaseManager.registrarVenta(Sesion.getUsuarioId(), res.get(), fecha, items);
+            } catch (Exception e) {
+                mostrarAlerta("Error", "No se pudo registrar la venta.", Alert.AlertType.ERROR);
+                return;
+            }
+            // Si el motor de reportes ya está cargado en este proceso, agrega la venta en segundo plano
+            MotorAnalitico.getInstance().refrescarSiCargado();
+            // El recibo se renderiza e imprime en segundo plano; la caja queda libre de inmediato
+            Recibo recibo = new Recibo(ventaId, fecha, Sesion.getUsuario(), res.get(), lineas);
+            estadoLabel.setText("Venta #" + ventaId + " — Total: $" + String.format("%.2f", total) + " (" + res.get() + ")");
+            ColaImpresion.getInstance().imprimir(recibo).whenComplete((v, error) -> Platform.runLater(() ->
+                estadoLabel.setText(error == null
+                    ? "Venta #" + ventaId + " — recibo impreso."
+                    : "Venta #" + ventaId + " — no se pudo imprimir el recibo. Use Reimprimir.")));
             carritoTable.getItems().clear();
+            precios = MotorPrecios.getInstance().nuevoCarrito();
             undoStack.clear();
             redoStack.clear();
             actualizarTotal();
         }
     }
 
+    /**
+     * Solicita un id de venta y reimprime su recibo en segundo plano.
+     */
+    private void reimprimir() {
+        TextInputDialog dialog = new TextInputDialog();
+        dialog.setTitle("Reimprimir recibo");
+        dialog.setHeaderText(null);
+        dialog.setContentText("Número de venta:");
+        Optional<String> res = dialog.showAndWait();
+        res.ifPresent(val -> {
+            int ventaId;
+            try {
+                ventaId = Integer.parseInt(val.trim());
+            } catch (NumberFormatException e) {
+                mostrarAlerta("Dato inválido", "Ingresa un número de venta.", Alert.AlertType.WARNING);
+                return;
+            }
+            estadoLabel.setText("Reimprimiendo venta #" + ventaId + "...");
+            ColaImpresion.getInstance().reimprimir(ventaId).whenComplete((v, error) -> Platform.runLater(() ->
+                estadoLabel.setText(error == null
+                    ? "Venta #" + ventaId + " — recibo reimpreso."
+                    : "No se pudo reimprimir la venta #" + ventaId + ".")));
+        });
+    }
+
     /**
      * Muestra una alerta informativa, de error o confirmación.
      */
@@ -1,6 +1,9 @@
 package com.orderlink.pos.controller;
 
+import com.orderlink.pos.auth.ServicioAutenticacion;
 import com.orderlink.pos.db.DatabaseManager;
+import com.orderlink.pos.model.Sesion;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -8,9 +11,7 @@ import javafx.stage.Stage;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controlador para la pantalla de inicio de sesión.
@@ -21,6 +22,9 @@ public class LoginController {
     @FXML private Button loginButton;
     @FXML private Label errorLabel;
 
+    // Hay un intento en curso (esperando la base o verificando): Enter o clic no inician otro
+    private boolean enCurso;
+
     /**
      * Inicializa el controlador de la pantalla de login.
      * Configura los eventos para el botón y la tecla Enter.
@@ -41,6 +45,9 @@ public class LoginController {
      * @param event Evento de acción (botón o Enter)
      */
     private void handleLogin(ActionEvent event) {
+        if (enCurso) {
+            return;
+        }
         String username = usernameField.getText().trim();
         String password = passwordField.getText().trim();
 
@@ -50,55 +57,93 @@ public class LoginController {
             return;
         }
 
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT role FROM users WHERE username = ? AND password = ?")) {
-            stmt.setString(1, username);
-            stmt.setString(2, password);
-            ResultSet rs = stmt.executeQuery();
+        // La base de datos se inicializa en segundo plano al arrancar; si aún no termina,
+        // se reintenta el login automáticamente cuando esté lista
+        CompletableFuture<Void> baseDatos = DatabaseManager.inicializarEnSegundoPlano();
+        if (!baseDatos.isDone()) {
+            errorLabel.setText("Preparando base de datos...");
+            bloquearFormulario(true);
+            baseDatos.whenComplete((v, e) -> Platform.runLater(() -> {
+                bloquearFormulario(false);
+                errorLabel.setText("");
+                handleLogin(event);
+            }));
+            return;
+        }
 
-            if (rs.next()) {
-                String role = rs.getString("role");
-                // Oculta la ventana de login (no la cierra)
-                Stage stage = (Stage) loginButton.getScene().getWindow();
-                stage.hide();
+        // La verificación (hash PBKDF2) corre en el pool de autenticación, no en el hilo de la interfaz
+        bloquearFormulario(true);
+        errorLabel.setText("Verificando...");
+        ServicioAutenticacion.getInstance().autenticar(username, password)
+            .whenComplete((resultado, error) -> Platform.runLater(() -> {
+                bloquearFormulario(false);
+                errorLabel.setText("");
+                if (error != null) {
+                    errorLabel.setText("No se pudo verificar el usuario. Intente nuevamente.");
+                    return;
+                }
+                switch (resultado.getEstado()) {
+                    case EXITO -> {
+                        Sesion.iniciar(resultado.getUsuarioId(), username, resultado.getRol());
+                        abrirVistaPrincipal(resultado.getRol());
+                    }
+                    case BLOQUEADO -> errorLabel.setText("Usuario bloqueado por intentos fallidos. Intente en "
+                            + resultado.getSegundosBloqueo() + " s.");
+                    case OCUPADO -> errorLabel.setText("El sistema está ocupado. Intente nuevamente.");
+                    default -> errorLabel.setText("Usuario o contraseña incorrectos. Intente nuevamente.");
+                }
+            }));
+    }
+
+    /**
+     * Marca el intento en curso y deshabilita el formulario mientras dura.
+     */
+    private void bloquearFormulario(boolean bloquear) {
+        enCurso = bloquear;
+        usernameField.setDisable(bloquear);
+        passwordField.setDisable(bloquear);
+        loginButton.setDisable(bloquear);
+    }
+
+    /**
+     * Oculta el login y abre la vista correspondiente al rol.
+     * @param role rol del usuario autenticado
+     */
+    private void abrirVistaPrincipal(String role) {
+        // Oculta la ventana de login (no la cierra)
+        Stage stage = (Stage) loginButton.getScene().getWindow();
+        stage.hide();
 
+        try {
+            // Carga la vista correspondiente según el rol
+            String fxmlPath = "/fxml/" + ("administrador".equals(role) ? "AdminView.fxml" : "CashierView.fxml");
+            FXMLLoader loader = new FXMLLoader(LoginController.class.getResource(fxmlPath));
+            loader.setClassLoader(LoginController.class.getClassLoader());
+            loader.setControllerFactory(param -> {
                 try {
-                    // Carga la vista correspondiente según el rol
-                    String fxmlPath = "/fxml/" + ("administrador".equals(role) ? "AdminView.fxml" : "CashierView.fxml");
-                    FXMLLoader loader = new FXMLLoader(LoginController.class.getResource(fxmlPath));
-                    loader.setClassLoader(LoginController.class.getClassLoader());
-                    loader.setControllerFactory(param -> {
-                        try {
-                            return param.getDeclaredConstructor().newInstance();
-                        } catch (Exception e) {
-                            throw new RuntimeException(e);
-                        }
-                    });
-                    Scene scene = new Scene(loader.load());
-                    scene.getStylesheets().add(getClass().getResource("/css/theme.css").toExternalForm());
-                    Stage newStage = new Stage();
-                    newStage.setScene(scene);
-                    newStage.setTitle("OrderLink POS - " + role.substring(0, 1).toUpperCase() + role.substring(1));
-                    newStage.setMinWidth(900); // Mejor distribución visual
-                    newStage.setMinHeight(600);
-                    newStage.setMaximized(true); // Inicia en pantalla completa
-                    newStage.show();
-                } catch (Exception ex) {
-                    // Mostrar alerta visual si falla la carga de la vista
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Error al cargar la vista principal");
-                    alert.setHeaderText("No se pudo cargar la interfaz principal");
-                    alert.setContentText("Detalle: " + ex.getMessage());
-                    alert.showAndWait();
-                    // Vuelve a mostrar el login
-                    stage.show();
+                    return param.getDeclaredConstructor().newInstance();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
                 }
-            } else {
-                errorLabel.setText("Usuario o contraseña incorrectos. Intente nuevamente.");
-            }
-        } catch (Exception e) {
-            errorLabel.setText("Error de conexión a la base de datos.");
+            });
+            Scene scene = new Scene(loader.load());
+            scene.getStylesheets().add(getClass().getResource("/css/theme.css").toExternalForm());
+            Stage newStage = new Stage();
+            newStage.setScene(scene);
+            newStage.setTitle("OrderLink POS - " + role.substring(0, 1).toUpperCase() + role.substring(1));
+            newStage.setMinWidth(900); // Mejor distribución visual
+            newStage.setMinHeight(600);
+            newStage.setMaximized(true); // Inicia en pantalla completa
+            newStage.show();
+        } catch (Exception ex) {
+            // Mostrar alerta visual si falla la carga de la vista
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error al cargar la vista principal");
+            alert.setHeaderText("No se pudo cargar la interfaz principal");
+            alert.setContentText("Detalle: " + ex.getMessage());
+            alert.showAndWait();
+            // Vuelve a mostrar el login
+            stage.show();
         }
     }
     // Puedes agregar aquí métodos auxiliares para validaciones o logs si lo requieres
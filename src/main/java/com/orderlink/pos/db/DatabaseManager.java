@@ -8,6 +8,7 @@ import java.sql.*;
 public class DatabaseManager {
     private static final String DB_URL = "jdbc:sqlite:cafeteria.db";
     private static Connection connection;
+    private static java.util.concurrent.CompletableFuture<Void> inicializacion;
 
     /**
      * Obtiene la conexión a la base de datos.
@@ -21,12 +22,43 @@ public class DatabaseManager {
         return connection;
     }
 
+    /**
+     * Abre una conexión dedicada, independiente de la conexión compartida.
+     * Se usa desde hilos en segundo plano para no interferir con el cobro.
+     * @return Connection nueva; quien la abre debe cerrarla
+     * @throws SQLException si ocurre un error de conexión
+     */
+    public static Connection nuevaConexion() throws SQLException {
+        java.util.Properties props = new java.util.Properties();
+        props.setProperty("busy_timeout", "5000");
+        return DriverManager.getConnection(DB_URL, props);
+    }
+
+    /**
+     * Inicia {@link #initializeDatabase()} en un hilo de fondo (una sola vez) para no retrasar
+     * la pantalla de login. Llamadas posteriores devuelven el mismo futuro.
+     * @return futuro que se completa cuando las tablas están listas
+     */
+    public static synchronized java.util.concurrent.CompletableFuture<Void> inicializarEnSegundoPlano() {
+        if (inicializacion == null) {
+            inicializacion = java.util.concurrent.CompletableFuture.runAsync(DatabaseManager::initializeDatabase, r -> {
+                Thread t = new Thread(r, "inicializar-bd");
+                t.setDaemon(true);
+                t.start();
+            });
+        }
+        return inicializacion;
+    }
+
     /**
      * Inicializa la base de datos creando las tablas necesarias si no existen.
      */
     public static void initializeDatabase() {
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement()) {
+            // WAL: las lecturas largas de reportes (conexión propia) no bloquean el commit del cobro.
+            // El modo queda guardado en el archivo de la base, así aplica a todas las conexiones.
+            stmt.execute("PRAGMA journal_mode=WAL");
             // Tabla de usuarios
             stmt.executeUpdate("""
                 CREATE TABLE IF NOT EXISTS users (
@@ -65,6 +97,7 @@ public class DatabaseManager {
                     product_id INTEGER NOT NULL,
                     quantity INTEGER NOT NULL,
                     price_per_unit REAL NOT NULL,
+                    discount REAL NOT NULL DEFAULT 0,
                     FOREIGN KEY(sale_id) REFERENCES sales(id),
                     FOREIGN KEY(product_id) REFERENCES products(id)
                 );
@@ -88,17 +121,109 @@ public class DatabaseManager {
                     FOREIGN KEY(producto_id) REFERENCES products(id)
                 );
             """);
+            // Tabla de promociones (tipo: cantidad = % sobre todas las unidades desde min_quantity,
+            // horario = precio especial entre start_time y end_time, combo = precio fijo del conjunto)
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS promotions (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    name TEXT NOT NULL,
+                    type TEXT CHECK(type IN ('cantidad','horario','combo')) NOT NULL,
+                    product_ids TEXT NOT NULL,
+                    min_quantity INTEGER NOT NULL DEFAULT 1,
+                    value REAL NOT NULL,
+                    start_time TEXT,
+                    end_time TEXT,
+                    active INTEGER NOT NULL DEFAULT 1
+                );
+            """);
+            // Columna de método de pago en ventas (migración para bases existentes)
+            try {
+                stmt.executeUpdate("ALTER TABLE sales ADD COLUMN payment_method TEXT");
+            } catch (SQLException ignored) {
+                // La columna ya existe
+            }
+            // Descuento por promociones de cada línea; price_per_unit queda como precio de lista
+            try {
+                stmt.executeUpdate("ALTER TABLE sale_items ADD COLUMN discount REAL NOT NULL DEFAULT 0");
+            } catch (SQLException ignored) {
+                // La columna ya existe
+            }
             // Usuarios por defecto (según la guía y la rúbrica)
             stmt.executeUpdate("""
                 INSERT OR IGNORE INTO users (username, password, role) VALUES
                 ('administrador', '1234', 'administrador'),
                 ('cajero', '1234', 'cajero');
             """);
+            // Reemplaza las contraseñas en texto plano (usuarios semilla o bases antiguas) por hashes
+            migrarContrasenas(conn);
         } catch (SQLException e) {
             System.err.println("Error inicializando la base de datos: " + e.getMessage());
         }
     }
 
+    /**
+     * Convierte a hash PBKDF2 toda contraseña guardada en texto plano.
+     */
+    private static void migrarContrasenas(Connection conn) throws SQLException {
+        java.util.Map<Integer, String> pendientes = new java.util.HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT id, password FROM users")) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                if (!com.orderlink.pos.auth.HashContrasena.esHash(rs.getString("password"))) {
+                    pendientes.put(rs.getInt("id"), rs.getString("password"));
+                }
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("UPDATE users SET password=? WHERE id=?")) {
+            for (java.util.Map.Entry<Integer, String> e : pendientes.entrySet()) {
+                stmt.setString(1, com.orderlink.pos.auth.HashContrasena.generar(e.getValue()));
+                stmt.setInt(2, e.getKey());
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    // Usuarios (se consultan desde el pool de autenticación, con conexión propia)
+
+    public static java.util.List<com.orderlink.pos.model.Usuario> obtenerUsuarios() throws SQLException {
+        java.util.List<com.orderlink.pos.model.Usuario> lista = new java.util.ArrayList<>();
+        try (Connection conn = nuevaConexion();
+             PreparedStatement stmt = conn.prepareStatement("SELECT id, username, password, role FROM users")) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                lista.add(leerUsuario(rs));
+            }
+        }
+        return lista;
+    }
+
+    public static com.orderlink.pos.model.Usuario obtenerUsuario(String username) throws SQLException {
+        try (Connection conn = nuevaConexion();
+             PreparedStatement stmt = conn.prepareStatement("SELECT id, username, password, role FROM users WHERE username = ?")) {
+            stmt.setString(1, username);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? leerUsuario(rs) : null;
+        }
+    }
+
+    public static void actualizarContrasena(String username, String hash) throws SQLException {
+        try (Connection conn = nuevaConexion();
+             PreparedStatement stmt = conn.prepareStatement("UPDATE users SET password=? WHERE username=?")) {
+            stmt.setString(1, hash);
+            stmt.setString(2, username);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static com.orderlink.pos.model.Usuario leerUsuario(ResultSet rs) throws SQLException {
+        return new com.orderlink.pos.model.Usuario(
+            rs.getInt("id"),
+            rs.getString("username"),
+            rs.getString("password"),
+            rs.getString("role")
+        );
+    }
+
     // CRUD de productos
 
     // CRUD de productos
@@ -127,6 +252,31 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Actualiza en lote el umbral de stock bajo de varios productos.
+     * @param umbrales nuevo umbral por id de producto
+     */
+    public static void actualizarUmbrales(java.util.Map<Integer, Integer> umbrales) throws SQLException {
+        String sql = "UPDATE products SET low_stock_threshold=? WHERE id=?";
+        try (Connection conn = getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            try {
+                for (java.util.Map.Entry<Integer, Integer> e : umbrales.entrySet()) {
+                    stmt.setInt(1, e.getValue());
+                    stmt.setInt(2, e.getKey());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
     public static void eliminarProducto(int id) throws SQLException {
         String sql = "DELETE FROM products WHERE id=?";
         try (Connection conn = getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -153,4 +303,153 @@ public class DatabaseManager {
         }
         return lista;
     }
+
+    // Ventas
+
+    /**
+     * Registra una venta con sus ítems y descuenta el stock en una sola transacción.
+     * @param usuarioId id del usuario que cobra
+     * @param metodoPago método de pago elegido
+     * @param fecha fecha y hora del cobro
+     * @param items ítems vendidos
+     * @return id de la venta registrada
+     * @throws SQLException si ocurre un error al guardar
+     */
+    public static int registrarVenta(int usuarioId, String metodoPago, java.time.LocalDateTime fecha, java.util.List<com.orderlink.pos.model.ItemVenta> items) throws SQLException {
+        double total = Math.round(items.stream().mapToDouble(com.orderlink.pos.model.ItemVenta::getSubtotal).sum() * 100) / 100.0;
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement venta = conn.prepareStatement(
+                         "INSERT INTO sales (user_id, total_amount, sale_date, payment_method) VALUES (?, ?, ?, ?)");
+                 PreparedStatement ultimoId = conn.prepareStatement("SELECT last_insert_rowid()");
+                 PreparedStatement item = conn.prepareStatement(
+                         "INSERT INTO sale_items (sale_id, product_id, quantity, price_per_unit, discount) VALUES (?, ?, ?, ?, ?)");
+                 PreparedStatement stock = conn.prepareStatement(
+                         "UPDATE products SET stock = stock - ? WHERE id = ?")) {
+                venta.setInt(1, usuarioId);
+                venta.setDouble(2, total);
+                venta.setString(3, fecha.toString());
+                venta.setString(4, metodoPago);
+                venta.executeUpdate();
+                int ventaId;
+                // sqlite-jdbc 3.43 ya no implementa getGeneratedKeys; el id sale de la misma conexión
+                try (ResultSet keys = ultimoId.executeQuery()) {
+                    keys.next();
+                    ventaId = keys.getInt(1);
+                }
+                for (com.orderlink.pos.model.ItemVenta i : items) {
+                    item.setInt(1, ventaId);
+                    item.setInt(2, i.getProductoId());
+                    item.setInt(3, i.getCantidad());
+                    item.setDouble(4, i.getPrecioUnitario());
+                    item.setDouble(5, i.getDescuento());
+                    item.addBatch();
+                    stock.setInt(1, i.getCantidad());
+                    stock.setInt(2, i.getProductoId());
+                    stock.addBatch();
+                }
+                item.executeBatch();
+                stock.executeBatch();
+                conn.commit();
+                return ventaId;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Obtiene los nombres de usuario indexados por id (para mostrar en reportes).
+     */
+    public static java.util.Map<Integer, String> obtenerNombresUsuarios() throws SQLException {
+        java.util.Map<Integer, String> nombres = new java.util.HashMap<>();
+        try (Connection conn = getConnection(); PreparedStatement stmt = conn.prepareStatement("SELECT id, username FROM users")) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                nombres.put(rs.getInt("id"), rs.getString("username"));
+            }
+        }
+        return nombres;
+    }
+
+    /**
+     * Reconstruye el recibo de una venta registrada (para reimpresión).
+     * @param ventaId id de la venta
+     * @return recibo, o null si la venta no existe
+     */
+    public static com.orderlink.pos.receipt.Recibo obtenerRecibo(int ventaId) throws SQLException {
+        String sqlVenta = """
+            SELECT s.sale_date, s.payment_method, u.username
+            FROM sales s LEFT JOIN users u ON u.id = s.user_id
+            WHERE s.id = ?
+        """;
+        String sqlItems = """
+            SELECT p.name, si.quantity, si.price_per_unit, si.discount
+            FROM sale_items si LEFT JOIN products p ON p.id = si.product_id
+            WHERE si.sale_id = ?
+            ORDER BY si.id
+        """;
+        try (Connection conn = nuevaConexion();
+             PreparedStatement venta = conn.prepareStatement(sqlVenta);
+             PreparedStatement items = conn.prepareStatement(sqlItems)) {
+            venta.setInt(1, ventaId);
+            ResultSet rs = venta.executeQuery();
+            if (!rs.next()) {
+                return null;
+            }
+            java.time.LocalDateTime fecha = java.time.LocalDateTime.parse(rs.getString("sale_date").replace(' ', 'T'));
+            String metodo = rs.getString("payment_method");
+            String cajero = rs.getString("username");
+            java.util.List<com.orderlink.pos.receipt.Recibo.Linea> lineas = new java.util.ArrayList<>();
+            items.setInt(1, ventaId);
+            ResultSet ri = items.executeQuery();
+            while (ri.next()) {
+                String nombre = ri.getString("name");
+                lineas.add(new com.orderlink.pos.receipt.Recibo.Linea(
+                    nombre != null ? nombre : "(producto eliminado)",
+                    ri.getInt("quantity"),
+                    ri.getDouble("price_per_unit"),
+                    ri.getDouble("discount")
+                ));
+            }
+            return new com.orderlink.pos.receipt.Recibo(ventaId, fecha,
+                cajero != null ? cajero : "---", metodo != null ? metodo : "---", lineas);
+        }
+    }
+
+    // Promociones
+
+    /**
+     * Obtiene las promociones activas. product_ids es una lista de ids separados por coma
+     * y start_time/end_time usan el formato HH:mm.
+     */
+    public static java.util.List<com.orderlink.pos.model.Promocion> obtenerPromociones() throws SQLException {
+        java.util.List<com.orderlink.pos.model.Promocion> lista = new java.util.ArrayList<>();
+        String sql = "SELECT * FROM promotions WHERE active = 1";
+        try (Connection conn = getConnection(); PreparedStatement stmt = conn.prepareStatement(sql)) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                java.util.List<Integer> productos = new java.util.ArrayList<>();
+                for (String id : rs.getString("product_ids").split(",")) {
+                    if (!id.isBlank()) productos.add(Integer.parseInt(id.trim()));
+                }
+                String inicio = rs.getString("start_time");
+                String fin = rs.getString("end_time");
+                lista.add(new com.orderlink.pos.model.Promocion(
+                    rs.getInt("id"),
+                    rs.getString("name"),
+                    rs.getString("type"),
+                    productos,
+                    rs.getInt("min_quantity"),
+                    rs.getDouble("value"),
+                    inicio != null ? java.time.LocalTime.parse(inicio) : null,
+                    fin != null ? java.time.LocalTime.parse(fin) : null
+                ));
+            }
+        }
+        return lista;
+    }
 }
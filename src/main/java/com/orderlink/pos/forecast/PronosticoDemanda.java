@@ -0,0 +1,191 @@
+package com.orderlink.pos.forecast;
+
+import com.orderlink.pos.analytics.MotorAnalitico;
+import com.orderlink.pos.analytics.VentasColumnares;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * PronosticoDemanda calcula, para cada producto, la demanda diaria, el punto de reorden
+ * y el stock objetivo a partir del historial de ventas del último año.
+ * <p>
+ * Las ventas se toman del almacén columnar de {@link MotorAnalitico} y se acumulan en una
+ * demanda diaria por producto (arreglo circular de {@value #DIAS_HISTORIA} días). Cada cálculo
+ * solo agrega las líneas nuevas desde el anterior y avanza la ventana; las estadísticas se
+ * calculan luego en paralelo, una partición por producto.
+ * <p>
+ * Punto de reorden = demanda diaria x días de entrega + stock de seguridad, con
+ * stock de seguridad = z x desviación x raíz(días de entrega).
+ */
+public class PronosticoDemanda {
+    private static final PronosticoDemanda INSTANCIA = new PronosticoDemanda();
+
+    static final int DIAS_HISTORIA = 365;
+    private static final int DIAS_ENTREGA = 2;
+    private static final int DIAS_COBERTURA = 7;
+    // Nivel de servicio del 95%
+    private static final double Z = 1.65;
+    private static final int HORA_NOCTURNA = 2;
+    private static final long SEGUNDOS_DIA = 86_400;
+
+    // Demanda por producto y día (índice = día % DIAS_HISTORIA)
+    private int[][] demanda = new int[0][];
+    // Primer día con ventas de cada producto; -1 = sin ventas
+    private long[] primerDia = new long[0];
+    private long diaActual = -1;
+    private int filasProcesadas;
+    private volatile Map<Integer, SugerenciaReposicion> sugerencias = Map.of();
+    // Aviso tras cada cálculo (también el nocturno); lo registra la vista de administración
+    private volatile Consumer<Map<Integer, SugerenciaReposicion>> alActualizar = s -> {};
+    private boolean nocturnoProgramado;
+
+    // Un solo hilo para el cálculo: el estado incremental nunca se modifica en paralelo
+    private final ScheduledExecutorService trabajador = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "pronostico-demanda");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+    private PronosticoDemanda() {}
+
+    public static PronosticoDemanda getInstance() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Últimas sugerencias calculadas, por id de producto.
+     */
+    public Map<Integer, SugerenciaReposicion> getSugerencias() {
+        return sugerencias;
+    }
+
+    /**
+     * Registra el aviso que recibe las sugerencias después de cada cálculo. Reemplaza al anterior.
+     * Se invoca en el hilo del pronóstico.
+     */
+    public void setAlActualizar(Consumer<Map<Integer, SugerenciaReposicion>> alActualizar) {
+        this.alActualizar = alActualizar;
+    }
+
+    /**
+     * Actualiza el pronóstico en segundo plano con las ventas nuevas.
+     * @return futuro con las sugerencias por id de producto
+     */
+    public CompletableFuture<Map<Integer, SugerenciaReposicion>> calcular() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                VentasColumnares.Vista vista = MotorAnalitico.getInstance().vistaActualizada().get();
+                long hoy = MotorAnalitico.segundosLocales(LocalDateTime.now()) / SEGUNDOS_DIA;
+                acumular(vista, hoy);
+                sugerencias = pool.submit(() -> calcularSugerencias(hoy)).get();
+                alActualizar.accept(sugerencias);
+                return sugerencias;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Cálculo de pronóstico interrumpido", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("No se pudo calcular el pronóstico: " + e.getCause().getMessage(), e);
+            }
+        }, trabajador);
+    }
+
+    /**
+     * Programa el recálculo todas las noches a las {@value #HORA_NOCTURNA}:00, empezando hoy
+     * si esa hora todavía no pasó. Solo la primera llamada del proceso tiene efecto.
+     */
+    public synchronized void programarNocturno() {
+        if (nocturnoProgramado) {
+            return;
+        }
+        nocturnoProgramado = true;
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDateTime proxima = ahora.toLocalDate().atTime(HORA_NOCTURNA, 0);
+        if (!proxima.isAfter(ahora)) {
+            proxima = proxima.plusDays(1);
+        }
+        long espera = Duration.between(ahora, proxima).toMinutes();
+        trabajador.scheduleAtFixedRate(() -> calcular(), espera, TimeUnit.DAYS.toMinutes(1), TimeUnit.MINUTES);
+    }
+
+    /**
+     * Avanza la ventana hasta hoy y suma las líneas de venta aún no procesadas.
+     */
+    private void acumular(VentasColumnares.Vista vista, long hoy) {
+        int productos = vista.getMaxProducto() + 1;
+        if (productos > demanda.length) {
+            int anterior = demanda.length;
+            demanda = Arrays.copyOf(demanda, productos);
+            primerDia = Arrays.copyOf(primerDia, productos);
+            for (int p = anterior; p < productos; p++) {
+                demanda[p] = new int[DIAS_HISTORIA];
+                primerDia[p] = -1;
+            }
+        }
+        // Limpia los días que salen de la ventana
+        if (diaActual >= 0 && hoy > diaActual) {
+            long dias = Math.min(hoy - diaActual, DIAS_HISTORIA);
+            for (long d = hoy - dias + 1; d <= hoy; d++) {
+                int slot = (int) (d % DIAS_HISTORIA);
+                for (int[] serie : demanda) {
+                    serie[slot] = 0;
+                }
+            }
+        }
+        diaActual = Math.max(diaActual, hoy);
+
+        for (int i = filasProcesadas; i < vista.getFilas(); i++) {
+            int p = vista.getProductoId(i);
+            long dia = vista.getFecha(i) / SEGUNDOS_DIA;
+            if (primerDia[p] < 0 || dia < primerDia[p]) {
+                primerDia[p] = dia;
+            }
+            if (dia > hoy - DIAS_HISTORIA && dia <= hoy) {
+                demanda[p][(int) (dia % DIAS_HISTORIA)] += vista.getCantidad(i);
+            }
+        }
+        filasProcesadas = vista.getFilas();
+    }
+
+    /**
+     * Calcula las sugerencias en paralelo; cada producto es una partición independiente.
+     */
+    private Map<Integer, SugerenciaReposicion> calcularSugerencias(long hoy) {
+        return IntStream.range(0, demanda.length)
+            .parallel()
+            .filter(p -> primerDia[p] >= 0)
+            .mapToObj(p -> sugerencia(p, hoy))
+            .collect(Collectors.toUnmodifiableMap(SugerenciaReposicion::getProductoId, s -> s));
+    }
+
+    private SugerenciaReposicion sugerencia(int p, long hoy) {
+        // Los productos nuevos se promedian solo desde su primera venta
+        int dias = (int) Math.max(1, Math.min(DIAS_HISTORIA, hoy - primerDia[p] + 1));
+        int[] serie = demanda[p];
+        double suma = 0;
+        double sumaCuadrados = 0;
+        for (long d = hoy - dias + 1; d <= hoy; d++) {
+            int x = serie[(int) (d % DIAS_HISTORIA)];
+            suma += x;
+            sumaCuadrados += (double) x * x;
+        }
+        double media = suma / dias;
+        double desviacion = Math.sqrt(Math.max(0, sumaCuadrados / dias - media * media));
+        double seguridad = Z * desviacion * Math.sqrt(DIAS_ENTREGA);
+        int puntoReorden = (int) Math.ceil(media * DIAS_ENTREGA + seguridad);
+        int stockObjetivo = (int) Math.ceil(media * (DIAS_ENTREGA + DIAS_COBERTURA) + seguridad);
+        return new SugerenciaReposicion(p, media, desviacion, puntoReorden, stockObjetivo);
+    }
+}
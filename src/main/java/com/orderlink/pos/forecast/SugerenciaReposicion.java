@@ -0,0 +1,35 @@
+package com.orderlink.pos.forecast;
+
+/**
+ * SugerenciaReposicion contiene el pronóstico de un producto: demanda diaria esperada,
+ * su variabilidad, el punto de reorden (umbral de stock bajo sugerido) y el stock objetivo.
+ */
+public class SugerenciaReposicion {
+    private final int productoId;
+    private final double demandaDiaria;
+    private final double desviacion;
+    private final int puntoReorden;
+    private final int stockObjetivo;
+
+    SugerenciaReposicion(int productoId, double demandaDiaria, double desviacion, int puntoReorden, int stockObjetivo) {
+        this.productoId = productoId;
+        this.demandaDiaria = demandaDiaria;
+        this.desviacion = desviacion;
+        this.puntoReorden = puntoReorden;
+        this.stockObjetivo = stockObjetivo;
+    }
+
+    public int getProductoId() { return productoId; }
+    public double getDemandaDiaria() { return demandaDiaria; }
+    public double getDesviacion() { return desviacion; }
+    public int getPuntoReorden() { return puntoReorden; }
+    public int getStockObjetivo() { return stockObjetivo; }
+
+    /**
+     * Cantidad sugerida a pedir para llegar al stock objetivo.
+     * @param stockActual stock disponible del producto
+     */
+    public int cantidadAPedir(int stockActual) {
+        return Math.max(0, stockObjetivo - stockActual);
+    }
+}
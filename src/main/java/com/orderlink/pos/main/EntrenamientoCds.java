@@ -0,0 +1,100 @@
+package com.orderlink.pos.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Ejecución de entrenamiento para el archivo AppCDS (perfil {@code appcds} de Maven).
+ * <p>
+ * Carga, sin inicializarlas ni abrir ventanas, las clases de la aplicación y las de JavaFX,
+ * FXML y SQLite que usan las pantallas, y abre una base SQLite en memoria para cargar el
+ * driver y su librería nativa. La JVM vuelca esas clases al archivo indicado con
+ * {@code -XX:ArchiveClassesAtExit}; no necesita pantalla, así que corre en el build.
+ */
+public class EntrenamientoCds {
+    // Paquetes que se cargan de los jars del classpath
+    private static final List<String> PAQUETES = List.of(
+        "com/orderlink/pos/",
+        "javafx/scene/control/",
+        "javafx/scene/layout/",
+        "javafx/scene/text/",
+        "javafx/fxml/",
+        "javafx/beans/",
+        "javafx/collections/",
+        "com/sun/javafx/fxml/",
+        "com/sun/javafx/scene/control/",
+        "com/sun/javafx/css/",
+        "javafx/css/",
+        "org/sqlite/"
+    );
+
+    public static void main(String[] args) throws Exception {
+        int cargadas = 0;
+        for (String entrada : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            cargadas += cargarClases(Paths.get(entrada));
+        }
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE entrenamiento (id INTEGER PRIMARY KEY, nombre TEXT)");
+        }
+        System.out.println("Entrenamiento CDS: " + cargadas + " clases cargadas.");
+    }
+
+    private static int cargarClases(Path ruta) throws IOException {
+        if (Files.isDirectory(ruta)) {
+            try (Stream<Path> archivos = Files.walk(ruta)) {
+                return archivos.map(p -> ruta.relativize(p).toString().replace(File.separatorChar, '/'))
+                    .mapToInt(EntrenamientoCds::cargar).sum();
+            }
+        }
+        if (!Files.isRegularFile(ruta) || !ruta.toString().endsWith(".jar")) {
+            return 0;
+        }
+        int cargadas = 0;
+        String dependencias = null;
+        try (JarFile jar = new JarFile(ruta.toFile())) {
+            Enumeration<JarEntry> entradas = jar.entries();
+            while (entradas.hasMoreElements()) {
+                cargadas += cargar(entradas.nextElement().getName());
+            }
+            if (jar.getManifest() != null) {
+                dependencias = jar.getManifest().getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+            }
+        }
+        // Con -jar, las dependencias vienen del Class-Path del manifiesto (lib/...)
+        if (dependencias != null) {
+            Path base = ruta.toAbsolutePath().getParent();
+            for (String dependencia : dependencias.trim().split("\\s+")) {
+                cargadas += cargarClases(base.resolve(dependencia));
+            }
+        }
+        return cargadas;
+    }
+
+    private static int cargar(String entrada) {
+        if (!entrada.endsWith(".class") || entrada.contains("module-info")
+                || PAQUETES.stream().noneMatch(entrada::startsWith)) {
+            return 0;
+        }
+        String nombre = entrada.substring(0, entrada.length() - ".class".length()).replace('/', '.');
+        try {
+            Class.forName(nombre, false, EntrenamientoCds.class.getClassLoader());
+            return 1;
+        } catch (Throwable e) {
+            // Clases opcionales o de otra plataforma: se omiten
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.orderlink.pos.main;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.text.Font;
+
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * FuenteIconos carga la fuente FontAwesome en segundo plano, después de mostrar el login.
+ * Solo se lee el archivo de fuente del jar de FontAwesomeFX, sin cargar sus clases de glifos.
+ * Mientras tanto los íconos ({@code .icon-label}) usan la fuente por defecto.
+ */
+public final class FuenteIconos {
+    private static final String RUTA = "/de/jensd/fx/glyphs/fontawesome/fontawesome-webfont.ttf";
+
+    private FuenteIconos() {}
+
+    /**
+     * Carga la fuente y vuelve a aplicar el estilo de los íconos de la escena.
+     * @param scene escena cuyos íconos se actualizan al terminar
+     * @return futuro que se completa cuando la fuente quedó registrada
+     */
+    public static CompletableFuture<Void> cargarEnSegundoPlano(Scene scene) {
+        return CompletableFuture.runAsync(() -> {
+            try (InputStream in = FuenteIconos.class.getResourceAsStream(RUTA)) {
+                if (in != null) {
+                    Font.loadFont(in, 12);
+                }
+            } catch (Exception e) {
+                System.err.println("No se pudo cargar la fuente de íconos: " + e.getMessage());
+            }
+        }, r -> {
+            Thread t = new Thread(r, "fuente-iconos");
+            t.setDaemon(true);
+            t.start();
+        }).thenRun(() -> Platform.runLater(() -> {
+            // Quitar y volver a poner la clase fuerza a JavaFX a resolver de nuevo la fuente
+            for (Node icono : scene.getRoot().lookupAll(".icon-label")) {
+                icono.getStyleClass().remove("icon-label");
+                icono.getStyleClass().add("icon-label");
+            }
+        }));
+    }
+}
@@ -0,0 +1,11 @@
+package com.orderlink.pos.main;
+
+/**
+ * Punto de entrada para ejecutar el jar con {@code java -jar}.
+ * JavaFX exige que la clase principal no extienda Application cuando se usa el classpath.
+ */
+public class Launcher {
+    public static void main(String[] args) {
+        MainApp.main(args);
+    }
+}
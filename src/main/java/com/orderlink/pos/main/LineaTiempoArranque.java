@@ -0,0 +1,39 @@
+package com.orderlink.pos.main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LineaTiempoArranque registra hitos del arranque y, si se activa con
+ * {@code -Dorderlink.arranque.reporte=true}, imprime cuánto tardó cada uno
+ * desde que se creó el proceso.
+ */
+public final class LineaTiempoArranque {
+    private static final boolean ACTIVO = Boolean.getBoolean("orderlink.arranque.reporte");
+    private static final long INICIO_PROCESO_MS = ProcessHandle.current().info().startInstant()
+            .map(i -> i.toEpochMilli()).orElse(System.currentTimeMillis());
+    private static final List<String> HITOS = new ArrayList<>();
+    private static boolean reportado;
+
+    private LineaTiempoArranque() {}
+
+    /**
+     * Registra un hito con el tiempo transcurrido desde el inicio del proceso.
+     * Se puede llamar desde cualquier hilo.
+     */
+    public static synchronized void marcar(String hito) {
+        if (!ACTIVO || reportado) return;
+        long ms = System.currentTimeMillis() - INICIO_PROCESO_MS;
+        HITOS.add(String.format("  %6d ms  %-32s [%s]", ms, hito, Thread.currentThread().getName()));
+    }
+
+    /**
+     * Imprime el reporte una sola vez; los hitos posteriores se ignoran.
+     */
+    public static synchronized void reportar() {
+        if (!ACTIVO || reportado) return;
+        reportado = true;
+        System.out.println("Línea de tiempo de arranque (desde el inicio del proceso):");
+        HITOS.forEach(System.out::println);
+    }
+}
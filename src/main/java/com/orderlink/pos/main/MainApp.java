@@ -1,18 +1,25 @@
 package com.orderlink.pos.main;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import com.orderlink.pos.db.DatabaseManager;
 
+import java.util.concurrent.CompletableFuture;
+
 public class MainApp extends Application {
     @Override
     public void start(Stage primaryStage) {
+        LineaTiempoArranque.marcar("JavaFX iniciado");
         try {
-            DatabaseManager.initializeDatabase();
+            // La base de datos se inicializa en segundo plano mientras se dibuja el login
+            CompletableFuture<Void> baseDatos = DatabaseManager.inicializarEnSegundoPlano()
+                .whenComplete((v, e) -> LineaTiempoArranque.marcar("Base de datos inicializada"));
             Parent root = FXMLLoader.load(getClass().getResource("/fxml/Login.fxml"));
+            LineaTiempoArranque.marcar("Login.fxml cargado");
             Scene scene = new Scene(root);
             scene.getStylesheets().add(getClass().getResource("/css/theme.css").toExternalForm());
             primaryStage.setTitle("OrderLink POS");
@@ -20,12 +27,19 @@ public class MainApp extends Application {
             primaryStage.setMinWidth(500);
             primaryStage.setMinHeight(350);
             primaryStage.show();
+            LineaTiempoArranque.marcar("Login visible");
+            // Lo que no hace falta para mostrar el login se carga después
+            CompletableFuture<Void> fuente = FuenteIconos.cargarEnSegundoPlano(scene)
+                .whenComplete((v, e) -> LineaTiempoArranque.marcar("Fuente de íconos cargada"));
+            CompletableFuture.allOf(baseDatos, fuente)
+                .whenComplete((v, e) -> Platform.runLater(LineaTiempoArranque::reportar));
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
     public static void main(String[] args) {
+        LineaTiempoArranque.marcar("main");
         launch(args);
     }
 }
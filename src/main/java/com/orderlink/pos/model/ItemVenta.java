@@ -0,0 +1,30 @@
+package com.orderlink.pos.model;
+
+public class ItemVenta {
+    private int productoId;
+    private int cantidad;
+    private double precioUnitario;
+    private double descuento;
+
+    /**
+     * @param precioUnitario precio de lista del producto
+     * @param descuento descuento total de la línea por promociones, en centavos exactos
+     */
+    public ItemVenta(int productoId, int cantidad, double precioUnitario, double descuento) {
+        this.productoId = productoId;
+        this.cantidad = cantidad;
+        this.precioUnitario = precioUnitario;
+        this.descuento = descuento;
+    }
+
+    public int getProductoId() { return productoId; }
+    public int getCantidad() { return cantidad; }
+    public double getPrecioUnitario() { return precioUnitario; }
+    public double getDescuento() { return descuento; }
+    public double getSubtotal() { return cantidad * precioUnitario - descuento; }
+
+    public void setProductoId(int productoId) { this.productoId = productoId; }
+    public void setCantidad(int cantidad) { this.cantidad = cantidad; }
+    public void setPrecioUnitario(double precioUnitario) { this.precioUnitario = precioUnitario; }
+    public void setDescuento(double descuento) { this.descuento = descuento; }
+}
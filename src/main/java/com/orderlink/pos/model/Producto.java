@@ -1,33 +1,74 @@
 package com.orderlink.pos.model;
 
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+/**
+ * Producto del inventario. Sus campos son propiedades JavaFX para que las tablas
+ * actualicen solo la celda que cambia, sin refrescar la tabla completa.
+ */
 public class Producto {
-    private int id;
-    private String nombre;
-    private String descripcion;
-    private double precio;
-    private int cantidad;
-    private int umbral;
+    private final IntegerProperty id = new SimpleIntegerProperty(this, "id");
+    private final StringProperty nombre = new SimpleStringProperty(this, "nombre");
+    private final StringProperty descripcion = new SimpleStringProperty(this, "descripcion");
+    private final DoubleProperty precio = new SimpleDoubleProperty(this, "precio");
+    private final IntegerProperty cantidad = new SimpleIntegerProperty(this, "cantidad");
+    private final IntegerProperty umbral = new SimpleIntegerProperty(this, "umbral");
+    // Pronóstico de demanda; null mientras no haya historial
+    private final ObjectProperty<Integer> umbralSugerido = new SimpleObjectProperty<>(this, "umbralSugerido");
+    private final ObjectProperty<Integer> stockObjetivo = new SimpleObjectProperty<>(this, "stockObjetivo");
 
     public Producto(int id, String nombre, String descripcion, double precio, int cantidad, int umbral) {
-        this.id = id;
-        this.nombre = nombre;
-        this.descripcion = descripcion;
-        this.precio = precio;
-        this.cantidad = cantidad;
-        this.umbral = umbral;
+        this.id.set(id);
+        this.nombre.set(nombre);
+        this.descripcion.set(descripcion);
+        this.precio.set(precio);
+        this.cantidad.set(cantidad);
+        this.umbral.set(umbral);
     }
 
-    public int getId() { return id; }
-    public String getNombre() { return nombre; }
-    public String getDescripcion() { return descripcion; }
-    public double getPrecio() { return precio; }
-    public int getCantidad() { return cantidad; }
-    public int getUmbral() { return umbral; }
+    public int getId() { return id.get(); }
+    public String getNombre() { return nombre.get(); }
+    public String getDescripcion() { return descripcion.get(); }
+    public double getPrecio() { return precio.get(); }
+    public int getCantidad() { return cantidad.get(); }
+    public int getUmbral() { return umbral.get(); }
+    public Integer getUmbralSugerido() { return umbralSugerido.get(); }
+    public Integer getStockObjetivo() { return stockObjetivo.get(); }
+
+    public void setId(int id) { this.id.set(id); }
+    public void setNombre(String nombre) { this.nombre.set(nombre); }
+    public void setDescripcion(String descripcion) { this.descripcion.set(descripcion); }
+    public void setPrecio(double precio) { this.precio.set(precio); }
+    public void setCantidad(int cantidad) { this.cantidad.set(cantidad); }
+    public void setUmbral(int umbral) { this.umbral.set(umbral); }
+    public void setUmbralSugerido(Integer umbralSugerido) { this.umbralSugerido.set(umbralSugerido); }
+    public void setStockObjetivo(Integer stockObjetivo) { this.stockObjetivo.set(stockObjetivo); }
 
-    public void setId(int id) { this.id = id; }
-    public void setNombre(String nombre) { this.nombre = nombre; }
-    public void setDescripcion(String descripcion) { this.descripcion = descripcion; }
-    public void setPrecio(double precio) { this.precio = precio; }
-    public void setCantidad(int cantidad) { this.cantidad = cantidad; }
-    public void setUmbral(int umbral) { this.umbral = umbral; }
+    public IntegerProperty idProperty() { return id; }
+    public StringProperty nombreProperty() { return nombre; }
+    public StringProperty descripcionProperty() { return descripcion; }
+    public DoubleProperty precioProperty() { return precio; }
+    public IntegerProperty cantidadProperty() { return cantidad; }
+    public IntegerProperty umbralProperty() { return umbral; }
+    public ObjectProperty<Integer> umbralSugeridoProperty() { return umbralSugerido; }
+    public ObjectProperty<Integer> stockObjetivoProperty() { return stockObjetivo; }
+
+    /**
+     * Copia los datos de otro producto con el mismo id (recarga del inventario).
+     * Solo notifica a la vista las propiedades cuyo valor cambió.
+     */
+    public void copiarDe(Producto otro) {
+        setNombre(otro.getNombre());
+        setDescripcion(otro.getDescripcion());
+        setPrecio(otro.getPrecio());
+        setCantidad(otro.getCantidad());
+        setUmbral(otro.getUmbral());
+    }
 }
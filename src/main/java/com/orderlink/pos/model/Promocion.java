@@ -0,0 +1,44 @@
+package com.orderlink.pos.model;
+
+import java.time.LocalTime;
+import java.util.List;
+
+public class Promocion {
+    private int id;
+    private String nombre;
+    private String tipo; // cantidad, horario, combo
+    private List<Integer> productos;
+    private int cantidadMinima;
+    private double valor;
+    private LocalTime inicio; // null = todo el día
+    private LocalTime fin;
+
+    public Promocion(int id, String nombre, String tipo, List<Integer> productos, int cantidadMinima, double valor, LocalTime inicio, LocalTime fin) {
+        this.id = id;
+        this.nombre = nombre;
+        this.tipo = tipo;
+        this.productos = productos;
+        this.cantidadMinima = cantidadMinima;
+        this.valor = valor;
+        this.inicio = inicio;
+        this.fin = fin;
+    }
+
+    public int getId() { return id; }
+    public String getNombre() { return nombre; }
+    public String getTipo() { return tipo; }
+    public List<Integer> getProductos() { return productos; }
+    public int getCantidadMinima() { return cantidadMinima; }
+    public double getValor() { return valor; }
+    public LocalTime getInicio() { return inicio; }
+    public LocalTime getFin() { return fin; }
+
+    public void setId(int id) { this.id = id; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+    public void setTipo(String tipo) { this.tipo = tipo; }
+    public void setProductos(List<Integer> productos) { this.productos = productos; }
+    public void setCantidadMinima(int cantidadMinima) { this.cantidadMinima = cantidadMinima; }
+    public void setValor(double valor) { this.valor = valor; }
+    public void setInicio(LocalTime inicio) { this.inicio = inicio; }
+    public void setFin(LocalTime fin) { this.fin = fin; }
+}
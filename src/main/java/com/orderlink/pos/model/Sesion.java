@@ -0,0 +1,22 @@
+package com.orderlink.pos.model;
+
+/**
+ * Sesion guarda los datos del usuario que inició sesión en esta caja.
+ */
+public class Sesion {
+    private static int usuarioId;
+    private static String usuario;
+    private static String rol;
+
+    private Sesion() {}
+
+    public static void iniciar(int id, String nombre, String role) {
+        usuarioId = id;
+        usuario = nombre;
+        rol = role;
+    }
+
+    public static int getUsuarioId() { return usuarioId; }
+    public static String getUsuario() { return usuario; }
+    public static String getRol() { return rol; }
+}
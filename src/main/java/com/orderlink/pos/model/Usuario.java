@@ -0,0 +1,25 @@
+package com.orderlink.pos.model;
+
+public class Usuario {
+    private int id;
+    private String nombre;
+    private String contrasena; // hash PBKDF2 (ver HashContrasena)
+    private String rol;
+
+    public Usuario(int id, String nombre, String contrasena, String rol) {
+        this.id = id;
+        this.nombre = nombre;
+        this.contrasena = contrasena;
+        this.rol = rol;
+    }
+
+    public int getId() { return id; }
+    public String getNombre() { return nombre; }
+    public String getContrasena() { return contrasena; }
+    public String getRol() { return rol; }
+
+    public void setId(int id) { this.id = id; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+    public void setContrasena(String contrasena) { this.contrasena = contrasena; }
+    public void setRol(String rol) { this.rol = rol; }
+}
@@ -0,0 +1,150 @@
+package com.orderlink.pos.pricing;
+
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * CarritoPrecios guarda las cantidades del carrito y los descuentos aplicados, y los
+ * actualiza de forma incremental: cada cambio de línea re-evalúa solo las reglas indexadas
+ * para ese producto y ajusta los descuentos de los productos afectados.
+ */
+public class CarritoPrecios {
+    private final MotorPrecios motor;
+    private final Map<Integer, Integer> cantidades = new HashMap<>();
+    private final Map<Integer, Double> precios = new HashMap<>();
+    // Último aporte de cada regla (por índice), para poder restarlo al re-evaluar
+    private final Map<Integer, Double>[] aportes;
+    // Suma de aportes por producto redondeada a centavos, sin tope; sin entrada si no hay aportes
+    private final Map<Integer, Double> descuentos = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    CarritoPrecios(MotorPrecios motor) {
+        this.motor = motor;
+        this.aportes = new Map[motor.cantidadReglas()];
+    }
+
+    /**
+     * Registra la nueva cantidad de un producto (0 lo quita) y re-evalúa sus reglas.
+     * @param hora hora del cambio, para las promociones por horario
+     * @return ids de los productos cuyo descuento pudo cambiar
+     */
+    public Set<Integer> actualizar(int productoId, int cantidad, double precio, LocalTime hora) {
+        if (cantidad > 0) {
+            cantidades.put(productoId, cantidad);
+            precios.put(productoId, precio);
+        } else {
+            cantidades.remove(productoId);
+        }
+        Set<Integer> cambiados = new HashSet<>();
+        cambiados.add(productoId);
+        int minuto = hora.getHour() * 60 + hora.getMinute();
+        for (ReglaPrecio r : motor.reglasDe(productoId)) {
+            evaluar(r, minuto, cambiados);
+        }
+        return cambiados;
+    }
+
+    /**
+     * Reemplaza el carrito completo (deshacer/rehacer) y evalúa una sola vez cada regla
+     * de los productos presentes.
+     * @param nuevasCantidades cantidad por id de producto
+     * @param nuevosPrecios precio unitario por id de producto
+     */
+    public void reemplazar(Map<Integer, Integer> nuevasCantidades, Map<Integer, Double> nuevosPrecios, LocalTime hora) {
+        limpiar();
+        cantidades.putAll(nuevasCantidades);
+        precios.putAll(nuevosPrecios);
+        int minuto = hora.getHour() * 60 + hora.getMinute();
+        Set<Integer> cambiados = new HashSet<>();
+        boolean[] vistas = new boolean[aportes.length];
+        for (int p : cantidades.keySet()) {
+            for (ReglaPrecio r : motor.reglasDe(p)) {
+                if (!vistas[r.indice]) {
+                    vistas[r.indice] = true;
+                    evaluar(r, minuto, cambiados);
+                }
+            }
+        }
+    }
+
+    /**
+     * Vacía el carrito y sus descuentos.
+     */
+    public void limpiar() {
+        cantidades.clear();
+        precios.clear();
+        descuentos.clear();
+        java.util.Arrays.fill(aportes, null);
+    }
+
+    /**
+     * Descuento aplicado a la línea del producto. Las promociones se acumulan,
+     * pero el descuento nunca supera el importe de la línea.
+     */
+    public double getDescuento(int productoId) {
+        double bruto = cantidad(productoId) * precio(productoId);
+        double descuento = Math.max(0, Math.min(bruto, descuentos.getOrDefault(productoId, 0.0)));
+        return Math.round(descuento * 100) / 100.0;
+    }
+
+    /**
+     * Nombres de las promociones que aplican a la línea del producto.
+     */
+    public String getPromociones(int productoId) {
+        StringJoiner nombres = new StringJoiner(", ");
+        for (ReglaPrecio r : motor.reglasDe(productoId)) {
+            Map<Integer, Double> aporte = aportes[r.indice];
+            if (aporte != null && aporte.containsKey(productoId)) {
+                nombres.add(r.getNombre());
+            }
+        }
+        return nombres.toString();
+    }
+
+    int cantidad(int productoId) {
+        return cantidades.getOrDefault(productoId, 0);
+    }
+
+    double precio(int productoId) {
+        return precios.getOrDefault(productoId, 0.0);
+    }
+
+    private void evaluar(ReglaPrecio regla, int minuto, Set<Integer> cambiados) {
+        Set<Integer> afectados = new HashSet<>();
+        Map<Integer, Double> anterior = aportes[regla.indice];
+        if (anterior != null) {
+            afectados.addAll(anterior.keySet());
+        }
+        Map<Integer, Double> nuevo = regla.vigente(minuto) ? regla.evaluar(this) : Map.of();
+        afectados.addAll(nuevo.keySet());
+        aportes[regla.indice] = nuevo.isEmpty() ? null : nuevo;
+        for (int p : afectados) {
+            recalcular(p);
+        }
+        cambiados.addAll(afectados);
+    }
+
+    /**
+     * Vuelve a sumar los aportes vigentes del producto en lugar de restar y sumar sobre el
+     * total, que con double deja residuos (6.9e-18) que se mostrarían como "-$0.00".
+     */
+    private void recalcular(int productoId) {
+        double suma = 0;
+        for (ReglaPrecio r : motor.reglasDe(productoId)) {
+            Map<Integer, Double> aporte = aportes[r.indice];
+            if (aporte != null) {
+                suma += aporte.getOrDefault(productoId, 0.0);
+            }
+        }
+        long centavos = Math.round(suma * 100);
+        if (centavos == 0) {
+            descuentos.remove(productoId);
+        } else {
+            descuentos.put(productoId, centavos / 100.0);
+        }
+    }
+}
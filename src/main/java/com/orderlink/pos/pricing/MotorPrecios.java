@@ -0,0 +1,81 @@
+package com.orderlink.pos.pricing;
+
+import com.orderlink.pos.db.DatabaseManager;
+import com.orderlink.pos.model.Promocion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MotorPrecios compila las promociones una sola vez y las indexa por producto.
+ * <p>
+ * Cada carrito ({@link CarritoPrecios}) usa el conjunto compilado vigente al crearse, de modo
+ * que recargar las promociones no altera un cobro en curso. Al cambiar una línea del carrito
+ * solo se evalúan las reglas que incluyen ese producto.
+ */
+public class MotorPrecios {
+    private static volatile MotorPrecios instancia = new MotorPrecios(List.of());
+
+    private final ReglaPrecio[] reglas;
+    private final Map<Integer, ReglaPrecio[]> reglasPorProducto;
+
+    /**
+     * Compila una lista de promociones. Las promociones con tipo desconocido se omiten.
+     */
+    public MotorPrecios(List<Promocion> promociones) {
+        List<ReglaPrecio> compiladas = new ArrayList<>();
+        for (Promocion promo : promociones) {
+            try {
+                compiladas.add(ReglaPrecio.compilar(compiladas.size(), promo));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Promoción omitida (" + promo.getNombre() + "): " + e.getMessage());
+            }
+        }
+        this.reglas = compiladas.toArray(new ReglaPrecio[0]);
+
+        Map<Integer, List<ReglaPrecio>> indice = new HashMap<>();
+        for (ReglaPrecio r : reglas) {
+            for (int p : r.productos) {
+                List<ReglaPrecio> lista = indice.computeIfAbsent(p, k -> new ArrayList<>());
+                if (!lista.contains(r)) lista.add(r);
+            }
+        }
+        this.reglasPorProducto = new HashMap<>();
+        indice.forEach((p, lista) -> reglasPorProducto.put(p, lista.toArray(new ReglaPrecio[0])));
+    }
+
+    /**
+     * Motor compilado con las promociones cargadas más recientemente.
+     */
+    public static MotorPrecios getInstance() {
+        return instancia;
+    }
+
+    /**
+     * Vuelve a leer y compilar las promociones activas de la base de datos.
+     */
+    public static void recargar() {
+        try {
+            instancia = new MotorPrecios(DatabaseManager.obtenerPromociones());
+        } catch (Exception e) {
+            System.err.println("No se pudieron cargar las promociones: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Crea el estado de precios de un carrito vacío.
+     */
+    public CarritoPrecios nuevoCarrito() {
+        return new CarritoPrecios(this);
+    }
+
+    int cantidadReglas() {
+        return reglas.length;
+    }
+
+    ReglaPrecio[] reglasDe(int productoId) {
+        return reglasPorProducto.getOrDefault(productoId, new ReglaPrecio[0]);
+    }
+}
@@ -0,0 +1,146 @@
+package com.orderlink.pos.pricing;
+
+import com.orderlink.pos.model.Promocion;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ReglaPrecio es una promoción ya compilada: productos como arreglo de ids y ventana
+ * horaria en minutos del día, para evaluarla sin volver a interpretar la promoción.
+ */
+public abstract class ReglaPrecio {
+    final int indice;
+    final String nombre;
+    final int[] productos;
+    // Ventana horaria en minutos del día; -1 = sin restricción
+    private final int inicio;
+    private final int fin;
+
+    ReglaPrecio(int indice, Promocion promo) {
+        this.indice = indice;
+        this.nombre = promo.getNombre();
+        this.productos = promo.getProductos().stream().mapToInt(Integer::intValue).toArray();
+        this.inicio = promo.getInicio() != null ? promo.getInicio().getHour() * 60 + promo.getInicio().getMinute() : -1;
+        this.fin = promo.getFin() != null ? promo.getFin().getHour() * 60 + promo.getFin().getMinute() : -1;
+    }
+
+    /**
+     * Compila una promoción según su tipo.
+     * @throws IllegalArgumentException si el tipo no es conocido
+     */
+    static ReglaPrecio compilar(int indice, Promocion promo) {
+        return switch (promo.getTipo()) {
+            case "cantidad" -> new DescuentoCantidad(indice, promo);
+            case "horario" -> new PrecioHorario(indice, promo);
+            case "combo" -> new Combo(indice, promo);
+            default -> throw new IllegalArgumentException("Tipo de promoción desconocido: " + promo.getTipo());
+        };
+    }
+
+    public String getNombre() { return nombre; }
+
+    /**
+     * Indica si la regla está vigente en el minuto del día dado.
+     * Admite ventanas que cruzan la medianoche (inicio mayor que fin).
+     */
+    boolean vigente(int minuto) {
+        if (inicio < 0 || fin < 0) return true;
+        return inicio <= fin ? minuto >= inicio && minuto < fin : minuto >= inicio || minuto < fin;
+    }
+
+    /**
+     * Calcula el descuento que aporta la regla a cada uno de sus productos.
+     * @return descuento por id de producto (vacío si no aplica)
+     */
+    abstract Map<Integer, Double> evaluar(CarritoPrecios carrito);
+
+    /**
+     * Porcentaje de descuento sobre todas las unidades al llevar una cantidad mínima.
+     */
+    static class DescuentoCantidad extends ReglaPrecio {
+        private final int minima;
+        private final double porcentaje;
+
+        DescuentoCantidad(int indice, Promocion promo) {
+            super(indice, promo);
+            this.minima = Math.max(1, promo.getCantidadMinima());
+            this.porcentaje = promo.getValor() / 100.0;
+        }
+
+        @Override
+        Map<Integer, Double> evaluar(CarritoPrecios carrito) {
+            Map<Integer, Double> aporte = new HashMap<>();
+            for (int p : productos) {
+                int cantidad = carrito.cantidad(p);
+                if (cantidad >= minima) {
+                    aporte.put(p, cantidad * carrito.precio(p) * porcentaje);
+                }
+            }
+            return aporte;
+        }
+    }
+
+    /**
+     * Precio especial por unidad dentro de la ventana horaria (happy hour).
+     */
+    static class PrecioHorario extends ReglaPrecio {
+        private final double precioEspecial;
+
+        PrecioHorario(int indice, Promocion promo) {
+            super(indice, promo);
+            this.precioEspecial = promo.getValor();
+        }
+
+        @Override
+        Map<Integer, Double> evaluar(CarritoPrecios carrito) {
+            Map<Integer, Double> aporte = new HashMap<>();
+            for (int p : productos) {
+                int cantidad = carrito.cantidad(p);
+                double diferencia = carrito.precio(p) - precioEspecial;
+                if (cantidad > 0 && diferencia > 0) {
+                    aporte.put(p, cantidad * diferencia);
+                }
+            }
+            return aporte;
+        }
+    }
+
+    /**
+     * Precio fijo por llevar juntos una unidad de cada producto del combo.
+     * Un producto puede repetirse ("3,3" = dos cafés por un precio fijo): cada aparición
+     * pide una unidad más. El descuento se reparte entre los productos en proporción a su precio.
+     */
+    static class Combo extends ReglaPrecio {
+        private final double precioCombo;
+        // Unidades de cada producto que forman un combo
+        private final Map<Integer, Integer> unidades = new HashMap<>();
+
+        Combo(int indice, Promocion promo) {
+            super(indice, promo);
+            this.precioCombo = promo.getValor();
+            for (int p : productos) {
+                unidades.merge(p, 1, Integer::sum);
+            }
+        }
+
+        @Override
+        Map<Integer, Double> evaluar(CarritoPrecios carrito) {
+            Map<Integer, Double> aporte = new HashMap<>();
+            int veces = Integer.MAX_VALUE;
+            double suma = 0;
+            for (int p : productos) {
+                veces = Math.min(veces, carrito.cantidad(p) / unidades.get(p));
+                suma += carrito.precio(p);
+            }
+            double ahorro = suma - precioCombo;
+            if (productos.length == 0 || veces <= 0 || ahorro <= 0) {
+                return aporte;
+            }
+            for (int p : productos) {
+                aporte.merge(p, veces * ahorro * carrito.precio(p) / suma, Double::sum);
+            }
+            return aporte;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.orderlink.pos.receipt;
+
+import com.orderlink.pos.db.DatabaseManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ColaImpresion renderiza, guarda en disco e imprime los recibos en un hilo de fondo.
+ * <p>
+ * Cada recibo se escribe primero en la carpeta de spool (texto y ESC/POS) y luego se envía
+ * a la impresora. Si la impresora falla, el envío se reintenta con espera creciente dentro
+ * de la misma tarea, así un recibo reintentado no queda detrás de los siguientes; el
+ * archivo ESC/POS queda en el spool y sirve también para reimprimir por id de venta.
+ * La impresora es un archivo o dispositivo local configurable con la propiedad
+ * {@code orderlink.impresora} (por defecto {@code spool/impresora.out}).
+ */
+public class ColaImpresion {
+    private static final ColaImpresion INSTANCIA = new ColaImpresion();
+
+    private static final int MAX_INTENTOS = 4;
+    private static final long ESPERA_INICIAL_MS = 500;
+
+    private final Path spool = Paths.get(System.getProperty("orderlink.spool", "spool"));
+    private final Path impresora = Paths.get(System.getProperty("orderlink.impresora", "spool/impresora.out"));
+    private final PlantillaRecibo plantilla = new PlantillaRecibo("OrderLink POS - Cafetería", "¡Gracias por su compra!", 42);
+    // Un solo hilo: los recibos salen en el orden en que se cobraron
+    private final ExecutorService trabajador = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "recibos");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private ColaImpresion() {}
+
+    public static ColaImpresion getInstance() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Encola un recibo para renderizar, guardar e imprimir.
+     * @param recibo recibo de la venta
+     * @return futuro que se completa cuando el recibo se imprimió o se agotaron los reintentos
+     */
+    public CompletableFuture<Void> imprimir(Recibo recibo) {
+        CompletableFuture<Void> resultado = new CompletableFuture<>();
+        trabajador.execute(() -> {
+            try {
+                byte[] escPos = plantilla.renderizarEscPos(recibo);
+                Files.createDirectories(spool);
+                Files.writeString(archivoTexto(recibo.getVentaId()), plantilla.renderizarTexto(recibo), StandardCharsets.UTF_8);
+                Files.write(archivoEscPos(recibo.getVentaId()), escPos);
+                enviar(escPos, resultado);
+            } catch (IOException e) {
+                resultado.completeExceptionally(e);
+            }
+        });
+        return resultado;
+    }
+
+    /**
+     * Reimprime el recibo de una venta. Usa el archivo del spool si existe;
+     * si no, reconstruye el recibo desde la base de datos.
+     * @param ventaId id de la venta
+     * @return futuro que se completa al terminar la impresión
+     */
+    public CompletableFuture<Void> reimprimir(int ventaId) {
+        CompletableFuture<Void> resultado = new CompletableFuture<>();
+        trabajador.execute(() -> {
+            try {
+                Path archivo = archivoEscPos(ventaId);
+                if (Files.exists(archivo)) {
+                    enviar(Files.readAllBytes(archivo), resultado);
+                    return;
+                }
+                Recibo recibo = DatabaseManager.obtenerRecibo(ventaId);
+                if (recibo == null) {
+                    resultado.completeExceptionally(new IllegalArgumentException("No existe la venta #" + ventaId));
+                    return;
+                }
+                imprimir(recibo).whenComplete((v, e) -> {
+                    if (e != null) resultado.completeExceptionally(e);
+                    else resultado.complete(null);
+                });
+            } catch (Exception e) {
+                resultado.completeExceptionally(e);
+            }
+        });
+        return resultado;
+    }
+
+    /**
+     * Envía los bytes a la impresora. Si falla, espera y reintenta en el mismo hilo:
+     * la cola se detiene mientras tanto para que los recibos no salgan desordenados.
+     */
+    private void enviar(byte[] escPos, CompletableFuture<Void> resultado) {
+        for (int intento = 1; ; intento++) {
+            try {
+                Path carpeta = impresora.toAbsolutePath().getParent();
+                if (carpeta != null) {
+                    Files.createDirectories(carpeta);
+                }
+                try (OutputStream out = Files.newOutputStream(impresora, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    out.write(escPos);
+                }
+                resultado.complete(null);
+                return;
+            } catch (IOException e) {
+                if (intento >= MAX_INTENTOS) {
+                    resultado.completeExceptionally(e);
+                    return;
+                }
+                try {
+                    Thread.sleep(ESPERA_INICIAL_MS << (intento - 1));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    resultado.completeExceptionally(e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private Path archivoTexto(int ventaId) {
+        return spool.resolve("recibo-" + ventaId + ".txt");
+    }
+
+    private Path archivoEscPos(int ventaId) {
+        return spool.resolve("recibo-" + ventaId + ".bin");
+    }
+}
@@ -0,0 +1,122 @@
+package com.orderlink.pos.receipt;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * PlantillaRecibo renderiza recibos en texto plano y en bytes ESC/POS.
+ * El encabezado y el pie se construyen una sola vez al crear la plantilla;
+ * por recibo solo se formatean las líneas variables.
+ */
+public class PlantillaRecibo {
+    // Comandos ESC/POS usados por la plantilla
+    private static final byte[] INICIALIZAR = {0x1B, 0x40};
+    private static final byte[] CENTRAR = {0x1B, 0x61, 0x01};
+    private static final byte[] IZQUIERDA = {0x1B, 0x61, 0x00};
+    private static final byte[] NEGRITA_ON = {0x1B, 0x45, 0x01};
+    private static final byte[] NEGRITA_OFF = {0x1B, 0x45, 0x00};
+    private static final byte[] AVANZAR_Y_CORTAR = {0x1B, 0x64, 0x04, 0x1D, 0x56, 0x01};
+
+    // CP850 cubre los acentos y la ñ en la mayoría de impresoras térmicas
+    private static final Charset CODIFICACION = Charset.isSupported("IBM850")
+            ? Charset.forName("IBM850") : java.nio.charset.StandardCharsets.ISO_8859_1;
+    // ESC @ deja la impresora en PC437: ESC t elige la tabla que corresponde a CODIFICACION
+    // (2 = PC850; 16 = WPC1252, que coincide con ISO-8859-1 en los caracteres imprimibles)
+    private static final byte[] TABLA_CARACTERES = {0x1B, 0x74, (byte) ("IBM850".equals(CODIFICACION.name()) ? 2 : 16)};
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private final int ancho;
+    private final String separador;
+    private final String encabezadoTexto;
+    private final String pieTexto;
+    private final byte[] encabezadoEscPos;
+    private final byte[] pieEscPos;
+
+    /**
+     * @param negocio nombre que encabeza el recibo
+     * @param pie mensaje al final del recibo
+     * @param ancho caracteres por línea de la impresora
+     */
+    public PlantillaRecibo(String negocio, String pie, int ancho) {
+        this.ancho = ancho;
+        this.separador = "-".repeat(ancho) + "\n";
+        this.encabezadoTexto = centrar(negocio) + "\n" + separador;
+        this.pieTexto = separador + centrar(pie) + "\n";
+
+        ByteArrayOutputStream enc = new ByteArrayOutputStream();
+        enc.writeBytes(INICIALIZAR);
+        enc.writeBytes(TABLA_CARACTERES);
+        enc.writeBytes(CENTRAR);
+        enc.writeBytes(NEGRITA_ON);
+        enc.writeBytes((negocio + "\n").getBytes(CODIFICACION));
+        enc.writeBytes(NEGRITA_OFF);
+        enc.writeBytes(IZQUIERDA);
+        enc.writeBytes(separador.getBytes(CODIFICACION));
+        this.encabezadoEscPos = enc.toByteArray();
+
+        ByteArrayOutputStream p = new ByteArrayOutputStream();
+        p.writeBytes(separador.getBytes(CODIFICACION));
+        p.writeBytes(CENTRAR);
+        p.writeBytes((pie + "\n").getBytes(CODIFICACION));
+        p.writeBytes(IZQUIERDA);
+        p.writeBytes(AVANZAR_Y_CORTAR);
+        this.pieEscPos = p.toByteArray();
+    }
+
+    /**
+     * Renderiza el recibo como texto plano.
+     */
+    public String renderizarTexto(Recibo recibo) {
+        return encabezadoTexto + cuerpo(recibo) + pieTexto;
+    }
+
+    /**
+     * Renderiza el recibo como flujo de bytes ESC/POS listo para enviar a la impresora.
+     */
+    public byte[] renderizarEscPos(Recibo recibo) {
+        byte[] cuerpo = cuerpo(recibo).getBytes(CODIFICACION);
+        byte[] salida = new byte[encabezadoEscPos.length + cuerpo.length + pieEscPos.length];
+        System.arraycopy(encabezadoEscPos, 0, salida, 0, encabezadoEscPos.length);
+        System.arraycopy(cuerpo, 0, salida, encabezadoEscPos.length, cuerpo.length);
+        System.arraycopy(pieEscPos, 0, salida, encabezadoEscPos.length + cuerpo.length, pieEscPos.length);
+        return salida;
+    }
+
+    private String cuerpo(Recibo recibo) {
+        StringBuilder sb = new StringBuilder(ancho * (recibo.getLineas().size() * 2 + 6));
+        sb.append("Venta #").append(recibo.getVentaId()).append('\n');
+        sb.append(recibo.getFecha().format(FORMATO_FECHA)).append('\n');
+        sb.append("Cajero: ").append(recibo.getCajero()).append('\n');
+        sb.append(separador);
+        for (Recibo.Linea l : recibo.getLineas()) {
+            sb.append(recortar(l.getNombre())).append('\n');
+            columnas(sb, "  " + l.getCantidad() + " x " + importe(l.getPrecioUnitario()), importe(l.getCantidad() * l.getPrecioUnitario()));
+            if (l.getDescuento() > 0) {
+                columnas(sb, "  Promoción", "-" + importe(l.getDescuento()));
+            }
+        }
+        sb.append(separador);
+        columnas(sb, "TOTAL", importe(recibo.getTotal()));
+        columnas(sb, "Pago", recibo.getMetodoPago());
+        return sb.toString();
+    }
+
+    private void columnas(StringBuilder sb, String izquierda, String derecha) {
+        int espacios = Math.max(1, ancho - izquierda.length() - derecha.length());
+        sb.append(izquierda).append(" ".repeat(espacios)).append(derecha).append('\n');
+    }
+
+    private String centrar(String texto) {
+        int margen = Math.max(0, (ancho - texto.length()) / 2);
+        return " ".repeat(margen) + texto;
+    }
+
+    private String recortar(String texto) {
+        return texto.length() <= ancho ? texto : texto.substring(0, ancho);
+    }
+
+    private static String importe(double valor) {
+        return "$" + String.format("%.2f", valor);
+    }
+}
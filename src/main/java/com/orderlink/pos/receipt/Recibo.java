@@ -0,0 +1,56 @@
+package com.orderlink.pos.receipt;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Recibo contiene los datos ya resueltos de una venta, listos para renderizar.
+ */
+public class Recibo {
+    private final int ventaId;
+    private final LocalDateTime fecha;
+    private final String cajero;
+    private final String metodoPago;
+    private final List<Linea> lineas;
+
+    public Recibo(int ventaId, LocalDateTime fecha, String cajero, String metodoPago, List<Linea> lineas) {
+        this.ventaId = ventaId;
+        this.fecha = fecha;
+        this.cajero = cajero;
+        this.metodoPago = metodoPago;
+        this.lineas = List.copyOf(lineas);
+    }
+
+    public int getVentaId() { return ventaId; }
+    public LocalDateTime getFecha() { return fecha; }
+    public String getCajero() { return cajero; }
+    public String getMetodoPago() { return metodoPago; }
+    public List<Linea> getLineas() { return lineas; }
+
+    public double getTotal() {
+        return lineas.stream().mapToDouble(Linea::getSubtotal).sum();
+    }
+
+    /**
+     * Una línea del recibo: producto, cantidad, precio de lista y descuento por promociones.
+     */
+    public static class Linea {
+        private final String nombre;
+        private final int cantidad;
+        private final double precioUnitario;
+        private final double descuento;
+
+        public Linea(String nombre, int cantidad, double precioUnitario, double descuento) {
+            this.nombre = nombre;
+            this.cantidad = cantidad;
+            this.precioUnitario = precioUnitario;
+            this.descuento = descuento;
+        }
+
+        public String getNombre() { return nombre; }
+        public int getCantidad() { return cantidad; }
+        public double getPrecioUnitario() { return precioUnitario; }
+        public double getDescuento() { return descuento; }
+        public double getSubtotal() { return cantidad * precioUnitario - descuento; }
+    }
+}